@@ -0,0 +1,75 @@
+package mypackage.benchmark;
+
+import mypackage.AStarSolver;
+import mypackage.BatchSolver;
+import mypackage.PathQuery;
+import mypackage.PathResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole batches of queries through {@link BatchSolver}, with and without queries sharing goals, on pools of
+ * different sizes to show how batches scale with threads.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class BatchBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class BatchState {
+        /**
+         * Number of distinct goals in the batch, 0 gives every query its own goal.
+         */
+        @Param({"0", "8"})
+        public int sharedGoals;
+
+        /**
+         * Worker threads of the pool the batch runs on.
+         */
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        public ForkJoinPool pool;
+        public BatchSolver solver;
+        public List<PathQuery> queries;
+
+        @Setup
+        public void setup(MapState map) {
+            pool = new ForkJoinPool(threads);
+            solver = new BatchSolver(new AStarSolver(), pool);
+            queries = new ArrayList<>(MapState.QUERY_COUNT);
+            for (int i = 0; i < MapState.QUERY_COUNT; i++) {
+                int goal = sharedGoals > 0 ? map.goals[i % sharedGoals] : map.goals[i];
+                queries.add(new PathQuery(map.starts[i], goal));
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<PathResult> solveAll(MapState map, BatchState batch) {
+        return batch.solver.solveAll(map.grid, batch.queries);
+    }
+}
@@ -0,0 +1,169 @@
+package mypackage.benchmark;
+
+import mypackage.Grid;
+
+import java.util.Random;
+
+/**
+ * Seeded generators for benchmark maps, so every run measures exactly the same grids.
+ */
+public final class MapGenerator {
+    private MapGenerator() {
+    }
+
+    public enum MapType {
+        RANDOM, MAZE, OPEN_FIELD, ROOMS
+    }
+
+    /**
+     * Generate a square map of the given type.
+     *
+     * @param type Kind of map
+     * @param size Width and height of map
+     * @param seed Random seed
+     * @return Generated grid
+     */
+    public static Grid generate(MapType type, int size, long seed) {
+        Random random = new Random(seed);
+        switch (type) {
+            case RANDOM:
+                return randomObstacles(size, 0.25, random);
+            case MAZE:
+                return maze(size, random);
+            case OPEN_FIELD:
+                return openField(size, random);
+            case ROOMS:
+                return rooms(size, 16, random);
+            default:
+                throw new IllegalArgumentException("Unknown map type: " + type);
+        }
+    }
+
+    /**
+     * Block every cell independently with the given probability.
+     */
+    public static Grid randomObstacles(int size, double density, Random random) {
+        Grid grid = new Grid(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                if (random.nextDouble() < density) {
+                    grid.setWalkable(x, y, false);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Perfect maze with corridors one cell wide, carved by an iterative depth-first search.
+     * Corridor cells lie on even coordinates, walls on odd ones.
+     */
+    public static Grid maze(int size, Random random) {
+        Grid grid = new Grid(size, size);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                grid.setWalkable(x, y, false);
+            }
+        }
+        int cells = (size + 1) / 2;
+        boolean[] visited = new boolean[cells * cells];
+        int[] stack = new int[cells * cells];
+        int top = 0;
+        stack[top++] = 0;
+        visited[0] = true;
+        grid.setWalkable(0, 0, true);
+        int[] dx = {1, -1, 0, 0};
+        int[] dy = {0, 0, 1, -1};
+        int[] options = new int[4];
+        while (top > 0) {
+            int cell = stack[top - 1];
+            int cx = cell % cells;
+            int cy = cell / cells;
+            int count = 0;
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + dx[d];
+                int ny = cy + dy[d];
+                if (nx >= 0 && nx < cells && ny >= 0 && ny < cells && !visited[ny * cells + nx]) {
+                    options[count++] = d;
+                }
+            }
+            if (count == 0) {
+                top--;
+                continue;
+            }
+            int d = options[random.nextInt(count)];
+            int nx = cx + dx[d];
+            int ny = cy + dy[d];
+            visited[ny * cells + nx] = true;
+            // Open the wall between the two corridor cells and the new cell itself
+            grid.setWalkable(cx * 2 + dx[d], cy * 2 + dy[d], true);
+            grid.setWalkable(nx * 2, ny * 2, true);
+            stack[top++] = ny * cells + nx;
+        }
+        return grid;
+    }
+
+    /**
+     * Mostly open map with scattered rectangular obstacles covering roughly 5% of the area.
+     */
+    public static Grid openField(int size, Random random) {
+        Grid grid = new Grid(size, size);
+        long target = (long) size * size / 20;
+        long blocked = 0;
+        int maxSide = Math.max(2, size / 32);
+        while (blocked < target) {
+            int w = 1 + random.nextInt(maxSide);
+            int h = 1 + random.nextInt(maxSide);
+            int x0 = random.nextInt(size);
+            int y0 = random.nextInt(size);
+            for (int y = y0; y < Math.min(size, y0 + h); y++) {
+                for (int x = x0; x < Math.min(size, x0 + w); x++) {
+                    grid.setWalkable(x, y, false);
+                }
+            }
+            blocked += (long) w * h;
+        }
+        return grid;
+    }
+
+    /**
+     * Square rooms separated by walls one cell thick, with a door of random position in each wall segment.
+     */
+    public static Grid rooms(int size, int roomSize, Random random) {
+        Grid grid = new Grid(size, size);
+        int period = roomSize + 1;
+        for (int wall = roomSize; wall < size; wall += period) {
+            for (int i = 0; i < size; i++) {
+                grid.setWalkable(wall, i, false);
+                grid.setWalkable(i, wall, false);
+            }
+        }
+        for (int wall = roomSize; wall < size; wall += period) {
+            for (int room = 0; room < size; room += period) {
+                int length = Math.min(roomSize, size - room);
+                int door = room + random.nextInt(length);
+                grid.setWalkable(wall, door, true);
+                door = room + random.nextInt(length);
+                grid.setWalkable(door, wall, true);
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Pick a uniformly random walkable cell.
+     *
+     * @param grid   Grid to pick from, must contain at least one walkable cell
+     * @param random Random source
+     * @return Cell index
+     */
+    public static int randomWalkableCell(Grid grid, Random random) {
+        while (true) {
+            int x = random.nextInt(grid.getWidth());
+            int y = random.nextInt(grid.getHeight());
+            if (grid.isWalkable(x, y)) {
+                return grid.index(x, y);
+            }
+        }
+    }
+}
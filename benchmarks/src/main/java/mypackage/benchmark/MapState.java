@@ -0,0 +1,41 @@
+package mypackage.benchmark;
+
+import mypackage.Grid;
+import mypackage.benchmark.MapGenerator.MapType;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+/**
+ * Generated map and a fixed set of start/goal pairs on it, shared by all benchmark threads.
+ */
+@State(Scope.Benchmark)
+public class MapState {
+    static final long SEED = 42L;
+    static final int QUERY_COUNT = 256;
+
+    @Param({"RANDOM", "MAZE", "OPEN_FIELD", "ROOMS"})
+    public MapType mapType;
+
+    @Param({"64", "256", "1024", "4096", "8192"})
+    public int size;
+
+    public Grid grid;
+    public int[] starts;
+    public int[] goals;
+
+    @Setup
+    public void setup() {
+        grid = MapGenerator.generate(mapType, size, SEED);
+        Random random = new Random(SEED + 1);
+        starts = new int[QUERY_COUNT];
+        goals = new int[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            starts[i] = MapGenerator.randomWalkableCell(grid, random);
+            goals[i] = MapGenerator.randomWalkableCell(grid, random);
+        }
+    }
+}
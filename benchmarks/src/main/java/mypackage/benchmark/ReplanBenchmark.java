@@ -0,0 +1,81 @@
+package mypackage.benchmark;
+
+import mypackage.AStarSolver;
+import mypackage.DStarLitePlanner;
+import mypackage.Grid;
+import mypackage.PathResult;
+import mypackage.SearchContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replanning after an obstacle appears on the current path, then disappears again, either by a full
+ * search or by repairing a D* Lite search tree. Uses its own copy of the map, since the benchmark modifies it.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ReplanBenchmark {
+
+    @State(Scope.Thread)
+    public static class ReplanState {
+        public final AStarSolver solver = new AStarSolver();
+        public final SearchContext context = new SearchContext();
+        public Grid grid;
+        public int start;
+        public int goal;
+        public int toggleX;
+        public int toggleY;
+        public boolean blocked;
+        public DStarLitePlanner planner;
+
+        @Setup(Level.Trial)
+        public void setup(MapState map) {
+            grid = MapGenerator.generate(map.mapType, map.size, MapState.SEED);
+            // Use the longest query with a path, and toggle the cell halfway along it
+            PathResult longest = null;
+            for (int i = 0; i < MapState.QUERY_COUNT; i++) {
+                PathResult result = solver.solve(grid, map.starts[i], map.goals[i], context);
+                if (result.getLength() > 2 && (longest == null || result.getLength() > longest.getLength())) {
+                    longest = result;
+                    start = map.starts[i];
+                    goal = map.goals[i];
+                }
+            }
+            if (longest == null) {
+                throw new IllegalStateException("No query with a path on " + map.mapType + " " + map.size);
+            }
+            toggleX = longest.getX(longest.getLength() / 2);
+            toggleY = longest.getY(longest.getLength() / 2);
+            planner = new DStarLitePlanner(grid, start, goal);
+            planner.plan();
+        }
+    }
+
+    @Benchmark
+    public PathResult fullReplan(ReplanState state) {
+        state.blocked = !state.blocked;
+        state.grid.setWalkable(state.toggleX, state.toggleY, !state.blocked);
+        return state.solver.solve(state.grid, state.start, state.goal, state.context);
+    }
+
+    @Benchmark
+    public PathResult incrementalReplan(ReplanState state) {
+        state.blocked = !state.blocked;
+        state.planner.setWalkable(state.toggleX, state.toggleY, !state.blocked);
+        return state.planner.plan();
+    }
+}
@@ -0,0 +1,150 @@
+package mypackage.benchmark;
+
+import mypackage.AStarSolver;
+import mypackage.BidirectionalSolver;
+import mypackage.HierarchicalPathFinder;
+import mypackage.JumpPointSolver;
+import mypackage.JumpPointTable;
+import mypackage.LandmarkTable;
+import mypackage.MovementModel;
+import mypackage.PathFinder;
+import mypackage.PathResult;
+import mypackage.SearchContext;
+import mypackage.StandardHeuristic;
+import mypackage.TerrainCosts;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single path queries, cycling through the fixed query set of the map.
+ * Throughput mode gives queries per second, sample mode gives latency percentiles.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class SolverBenchmark {
+
+    public enum Solver {
+        ASTAR, ASTAR_TERRAIN, ASTAR_LANDMARKS, BIDIRECTIONAL, BIDIRECTIONAL_PARALLEL, JPS, JPS_PLUS, HPA
+    }
+
+    @State(Scope.Benchmark)
+    public static class SolverState {
+        @Param({"ASTAR", "ASTAR_TERRAIN", "ASTAR_LANDMARKS", "BIDIRECTIONAL", "BIDIRECTIONAL_PARALLEL", "JPS", "JPS_PLUS", "HPA"})
+        public Solver solver;
+
+        public PathFinder finder;
+        private ExecutorService pool;
+
+        @Setup
+        public void setup(MapState map) {
+            switch (solver) {
+                case ASTAR:
+                    finder = new AStarSolver();
+                    break;
+                case ASTAR_TERRAIN:
+                    finder = new AStarSolver(MovementModel.EIGHT_CONNECTED, StandardHeuristic.OCTILE, randomCosts(map));
+                    break;
+                case ASTAR_LANDMARKS:
+                    LandmarkTable landmarks = LandmarkTable.build(map.grid, MovementModel.EIGHT_CONNECTED, 8);
+                    finder = new AStarSolver(MovementModel.EIGHT_CONNECTED, landmarks.heuristic());
+                    break;
+                case BIDIRECTIONAL:
+                    finder = new BidirectionalSolver();
+                    break;
+                case BIDIRECTIONAL_PARALLEL:
+                    pool = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "backward-search");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    finder = new BidirectionalSolver(MovementModel.EIGHT_CONNECTED, StandardHeuristic.OCTILE, pool);
+                    break;
+                case JPS:
+                    finder = new JumpPointSolver();
+                    break;
+                case JPS_PLUS:
+                    finder = new JumpPointSolver(JumpPointTable.build(map.grid));
+                    break;
+                case HPA:
+                    finder = new HierarchicalPathFinder(map.grid);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown solver: " + solver);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Byte costs from 1 to 8, in patches of 8 by 8 cells like terrain types.
+     */
+    static TerrainCosts randomCosts(MapState map) {
+        TerrainCosts costs = TerrainCosts.ofBytes(map.grid);
+        Random random = new Random(MapState.SEED + 2);
+        int patches = (map.size + 7) / 8;
+        int[] patchCosts = random.ints(patches * patches, 1, 9).toArray();
+        for (int y = 0; y < map.size; y++) {
+            for (int x = 0; x < map.size; x++) {
+                costs.setCost(x, y, patchCosts[y / 8 * patches + x / 8]);
+            }
+        }
+        return costs;
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        public final SearchContext context = new SearchContext();
+        public int next;
+    }
+
+    /**
+     * Queries and cells expanded per iteration, reported next to the score, for comparing cells per query.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class ExpansionCounters {
+        public long queries;
+        public long expanded;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            queries = 0;
+            expanded = 0;
+        }
+    }
+
+    @Benchmark
+    public PathResult singleQuery(MapState map, SolverState solver, ThreadState thread, ExpansionCounters counters) {
+        int i = thread.next++ % MapState.QUERY_COUNT;
+        PathResult result = solver.finder.solve(map.grid, map.starts[i], map.goals[i], thread.context);
+        counters.queries++;
+        counters.expanded += result.getExpanded();
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AStarSolverTest {
+
+    @Test
+    void optimalOnRandomGrids() {
+        Random random = new Random(1);
+        for (MovementModel movement : MovementModel.values()) {
+            for (int trial = 0; trial < 8; trial++) {
+                Grid grid = Reference.randomGrid(random, 20 + random.nextInt(60), 20 + random.nextInt(60),
+                        0.1 + 0.3 * random.nextDouble());
+                AStarSolver solver = new AStarSolver(movement);
+                SearchContext context = new SearchContext();
+                for (int query = 0; query < 100; query++) {
+                    checkQuery(grid, movement, null, solver, context,
+                            Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+                }
+            }
+        }
+    }
+
+    @Test
+    void sameCostsWithEveryOpenList() {
+        Random random = new Random(2);
+        Grid grid = Reference.randomGrid(random, 100, 100, 0.3);
+        AStarSolver solver = new AStarSolver();
+        SearchContext bucket = new SearchContext(0, new BucketQueue());
+        SearchContext heap = new SearchContext(0, new IndexedHeap());
+        for (int query = 0; query < 300; query++) {
+            int start = Reference.randomCell(random, grid);
+            int goal = Reference.randomCell(random, grid);
+            assertEquals(solver.solve(grid, start, goal, bucket).getCost(), solver.solve(grid, start, goal, heap).getCost());
+        }
+    }
+
+    @Test
+    void optimalOnByteTerrain() {
+        Random random = new Random(3);
+        Grid grid = Reference.randomGrid(random, 60, 60, 0.2);
+        checkTerrain(random, grid, TerrainCosts.ofBytes(grid), 255);
+    }
+
+    @Test
+    void optimalOnShortTerrain() {
+        Random random = new Random(4);
+        Grid grid = Reference.randomGrid(random, 60, 60, 0.2);
+        checkTerrain(random, grid, TerrainCosts.ofShorts(grid), 4000);
+    }
+
+    @Test
+    void groupedSearchMatchesSingleQueries() {
+        Random random = new Random(5);
+        for (MovementModel movement : MovementModel.values()) {
+            Grid grid = Reference.randomGrid(random, 50, 50, 0.3);
+            TerrainCosts costs = TerrainCosts.ofBytes(grid);
+            for (int y = 0; y < grid.getHeight(); y++) {
+                for (int x = 0; x < grid.getWidth(); x++) {
+                    costs.setCost(x, y, 1 + random.nextInt(9));
+                }
+            }
+            AStarSolver solver = new AStarSolver(movement, movement.getDefaultHeuristic(), costs);
+            int goal = Reference.randomCell(random, grid);
+            int[] starts = new int[50];
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = Reference.randomCell(random, grid);
+            }
+            PathResult[] results = solver.solveToGoal(grid, starts, goal, new SearchContext());
+            for (int i = 0; i < starts.length; i++) {
+                long expected = Reference.dijkstra(grid, movement, costs, starts[i], goal);
+                assertEquals(expected, results[i].getCost());
+                if (expected >= 0) {
+                    Reference.assertValidPath(grid, movement, costs, results[i], starts[i], goal);
+                }
+            }
+        }
+    }
+
+    @Test
+    void blockedStartHasNoPath() {
+        Grid grid = new Grid(10, 10);
+        grid.setWalkable(0, 0, false);
+        assertFalse(new AStarSolver().solve(grid, grid.index(0, 0), grid.index(9, 9)).isFound());
+    }
+
+    private static void checkTerrain(Random random, Grid grid, TerrainCosts costs, int maxCost) {
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                costs.setCost(x, y, 1 + random.nextInt(maxCost));
+            }
+        }
+        for (MovementModel movement : MovementModel.values()) {
+            AStarSolver solver = new AStarSolver(movement, movement.getDefaultHeuristic(), costs);
+            SearchContext context = new SearchContext();
+            for (int query = 0; query < 60; query++) {
+                checkQuery(grid, movement, costs, solver, context,
+                        Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+            }
+        }
+    }
+
+    static void checkQuery(Grid grid, MovementModel movement, TerrainCosts costs, PathFinder finder,
+                           SearchContext context, int start, int goal) {
+        long expected = Reference.dijkstra(grid, movement, costs, start, goal);
+        PathResult result = finder.solve(grid, start, goal, context);
+        assertEquals(expected, result.getCost(), "cost of " + grid.x(start) + "," + grid.y(start)
+                + " to " + grid.x(goal) + "," + grid.y(goal));
+        if (expected >= 0) {
+            Reference.assertValidPath(grid, movement, costs, result, start, goal);
+        }
+    }
+}
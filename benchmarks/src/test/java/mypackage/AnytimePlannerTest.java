@@ -0,0 +1,35 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnytimePlannerTest {
+
+    @Test
+    void improvesWithinBoundUntilOptimal() {
+        Random random = new Random(41);
+        for (int trial = 0; trial < 30; trial++) {
+            MovementModel movement = MovementModel.values()[trial % MovementModel.values().length];
+            Grid grid = Reference.randomGrid(random, 120, 120, 0.3);
+            int start = Reference.randomCell(random, grid);
+            int goal = Reference.randomCell(random, grid);
+            long optimal = Reference.dijkstra(grid, movement, null, start, goal);
+            AnytimePlanner planner = new AnytimePlanner(grid, movement, start, goal, 3, 0.5);
+            int lastCost = Integer.MAX_VALUE;
+            while (!planner.step(200)) {
+                PathResult path = planner.getPath();
+                if (path.isFound()) {
+                    Reference.assertValidPath(grid, movement, null, path, start, goal);
+                    assertTrue(path.getCost() <= lastCost, "cost never rises");
+                    assertTrue(path.getCost() <= planner.getBound() * optimal + 1e-9, "cost within bound");
+                    lastCost = path.getCost();
+                }
+            }
+            assertEquals(optimal, planner.getPath().getCost());
+        }
+    }
+}
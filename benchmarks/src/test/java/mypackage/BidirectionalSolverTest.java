@@ -0,0 +1,46 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class BidirectionalSolverTest {
+
+    @Test
+    void optimalOnRandomGrids() {
+        Random random = new Random(21);
+        for (MovementModel movement : MovementModel.values()) {
+            for (int trial = 0; trial < 6; trial++) {
+                Grid grid = Reference.randomGrid(random, 20 + random.nextInt(80), 20 + random.nextInt(80),
+                        0.1 + 0.3 * random.nextDouble());
+                BidirectionalSolver solver = new BidirectionalSolver(movement);
+                SearchContext context = new SearchContext();
+                for (int query = 0; query < 80; query++) {
+                    AStarSolverTest.checkQuery(grid, movement, null, solver, context,
+                            Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+                }
+            }
+        }
+    }
+
+    @Test
+    void optimalWithBackwardSearchOnOtherThread() {
+        Random random = new Random(22);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (MovementModel movement : MovementModel.values()) {
+                Grid grid = Reference.randomGrid(random, 80, 80, 0.25);
+                BidirectionalSolver solver = new BidirectionalSolver(movement, movement.getDefaultHeuristic(), executor);
+                SearchContext context = new SearchContext();
+                for (int query = 0; query < 100; query++) {
+                    AStarSolverTest.checkQuery(grid, movement, null, solver, context,
+                            Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
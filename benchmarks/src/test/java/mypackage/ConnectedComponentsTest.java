@@ -0,0 +1,76 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectedComponentsTest {
+
+    @Test
+    void matchesFloodFillAfterToggles() {
+        Random random = new Random(51);
+        for (MovementModel movement : MovementModel.values()) {
+            for (int trial = 0; trial < 5; trial++) {
+                Grid grid = Reference.randomGrid(random, 10 + random.nextInt(40), 10 + random.nextInt(40),
+                        0.2 + 0.3 * random.nextDouble());
+                ConnectedComponents components = new ConnectedComponents(grid, movement);
+                for (int toggle = 0; toggle < 3000; toggle++) {
+                    int x = random.nextInt(grid.getWidth());
+                    int y = random.nextInt(grid.getHeight());
+                    grid.setWalkable(x, y, !grid.isWalkable(x, y));
+                    if (toggle % 50 == 0) {
+                        check(grid, movement, components);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void guardAnswersUnreachableGoalsWithoutSearching() {
+        Grid grid = new Grid(100, 100);
+        for (int y = 0; y < grid.getHeight(); y++) {
+            grid.setWalkable(50, y, false);
+        }
+        ConnectedComponents components = new ConnectedComponents(grid, MovementModel.EIGHT_CONNECTED);
+        PathResult result = components.guard(new AStarSolver()).solve(grid, grid.index(1, 1), grid.index(90, 90));
+        assertFalse(result.isFound());
+        assertEquals(0, result.getExpanded());
+        grid.setWalkable(50, 20, true);
+        assertTrue(components.isReachable(grid.index(1, 1), grid.index(90, 90)));
+    }
+
+    private static void check(Grid grid, MovementModel movement, ConnectedComponents components) {
+        int[] labels = Reference.floodFill(grid, movement);
+        Map<Integer, Integer> sizes = new HashMap<>();
+        for (int label : labels) {
+            if (label != 0) {
+                sizes.merge(label, 1, Integer::sum);
+            }
+        }
+        // Reference labels and component ids must map one to one
+        Map<Integer, Integer> toComponent = new HashMap<>();
+        Map<Integer, Integer> toLabel = new HashMap<>();
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int cell = grid.index(x, y);
+                int label = labels[cell];
+                int component = components.getComponent(cell);
+                assertEquals(label == 0, component == 0, "blocked cells have no component");
+                if (label == 0) {
+                    continue;
+                }
+                assertEquals(component, toComponent.computeIfAbsent(label, l -> component));
+                assertEquals(label, toLabel.computeIfAbsent(component, c -> label));
+                assertEquals(sizes.get(label), components.getComponentSize(cell));
+            }
+        }
+        assertEquals(sizes.size(), components.getComponentCount());
+    }
+}
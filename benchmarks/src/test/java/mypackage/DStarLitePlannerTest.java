@@ -0,0 +1,44 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DStarLitePlannerTest {
+
+    @Test
+    void replansOptimallyAfterChanges() {
+        Random random = new Random(31);
+        for (MovementModel movement : MovementModel.values()) {
+            for (int trial = 0; trial < 8; trial++) {
+                Grid grid = Reference.randomGrid(random, 20 + random.nextInt(40), 20 + random.nextInt(40), 0.25);
+                int start = Reference.randomCell(random, grid);
+                int goal = Reference.randomCell(random, grid);
+                DStarLitePlanner planner = new DStarLitePlanner(grid, movement, start, goal);
+                for (int replan = 0; replan < 100; replan++) {
+                    PathResult path = planner.plan();
+                    long expected = Reference.dijkstra(grid, movement, null, start, goal);
+                    assertEquals(expected, path.getCost(), "replan " + replan);
+                    if (expected < 0) {
+                        break;
+                    }
+                    Reference.assertValidPath(grid, movement, null, path, start, goal);
+                    // Walk a step along the path, then change a few cells anywhere but under the agent
+                    if (path.getLength() > 1 && random.nextBoolean()) {
+                        start = path.getCell(1);
+                        planner.setStart(start);
+                    }
+                    for (int change = random.nextInt(4); change > 0; change--) {
+                        int x = random.nextInt(grid.getWidth());
+                        int y = random.nextInt(grid.getHeight());
+                        if (grid.index(x, y) != start && grid.index(x, y) != goal) {
+                            planner.setWalkable(x, y, !grid.isWalkable(x, y));
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
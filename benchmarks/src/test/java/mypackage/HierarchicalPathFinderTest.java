@@ -0,0 +1,38 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalPathFinderTest {
+
+    @Test
+    void findsEveryPathAfterChanges() {
+        Random random = new Random(71);
+        for (int trial = 0; trial < 90; trial++) {
+            MovementModel movement = MovementModel.values()[trial % MovementModel.values().length];
+            Grid grid = Reference.randomGrid(random, 8 + random.nextInt(60), 8 + random.nextInt(60),
+                    0.1 + 0.4 * random.nextDouble());
+            HierarchicalPathFinder finder = new HierarchicalPathFinder(grid, movement, 2 + random.nextInt(9));
+            for (int change = random.nextInt(20); change > 0; change--) {
+                finder.setWalkable(random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight()), random.nextBoolean());
+            }
+            // Near-optimal: same reachability as the reference, never cheaper than optimal
+            SearchContext context = new SearchContext();
+            for (int query = 0; query < 30; query++) {
+                int start = Reference.randomCell(random, grid);
+                int goal = Reference.randomCell(random, grid);
+                long optimal = Reference.dijkstra(grid, movement, null, start, goal);
+                PathResult path = finder.solve(grid, start, goal, context);
+                assertEquals(optimal >= 0, path.isFound(), "path found");
+                if (optimal >= 0) {
+                    Reference.assertValidPath(grid, movement, null, path, start, goal);
+                    assertTrue(path.getCost() >= optimal);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+class JumpPointSolverTest {
+
+    @Test
+    void jumpPointSearchIsOptimal() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 10; trial++) {
+            Grid grid = Reference.randomGrid(random, 20 + random.nextInt(80), 20 + random.nextInt(80),
+                    0.1 + 0.3 * random.nextDouble());
+            check(random, grid, new JumpPointSolver());
+        }
+    }
+
+    @Test
+    void jumpPointSearchPlusIsOptimal() {
+        Random random = new Random(12);
+        for (int trial = 0; trial < 10; trial++) {
+            Grid grid = Reference.randomGrid(random, 20 + random.nextInt(80), 20 + random.nextInt(80),
+                    0.1 + 0.3 * random.nextDouble());
+            check(random, grid, new JumpPointSolver(JumpPointTable.build(grid)));
+        }
+    }
+
+    private static void check(Random random, Grid grid, JumpPointSolver solver) {
+        SearchContext context = new SearchContext();
+        for (int query = 0; query < 100; query++) {
+            AStarSolverTest.checkQuery(grid, MovementModel.EIGHT_CONNECTED, null, solver, context,
+                    Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+        }
+    }
+}
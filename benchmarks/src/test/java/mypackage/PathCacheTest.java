@@ -0,0 +1,57 @@
+package mypackage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathCacheTest {
+
+    @Test
+    void invalidatedPathsMatchFreshSearches() {
+        Random random = new Random(61);
+        for (MovementModel movement : MovementModel.values()) {
+            Grid grid = Reference.randomGrid(random, 60, 60, 0.25);
+            AStarSolver solver = new AStarSolver(movement);
+            PathCache cache = new PathCache(solver, grid, 256);
+            SearchContext context = new SearchContext();
+            // Few endpoints, so queries repeat and are answered from the cache
+            int[] cells = new int[30];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = Reference.randomCell(random, grid);
+            }
+            for (int step = 0; step < 5000; step++) {
+                if (random.nextInt(10) == 0) {
+                    int x = random.nextInt(grid.getWidth());
+                    int y = random.nextInt(grid.getHeight());
+                    grid.setWalkable(x, y, !grid.isWalkable(x, y));
+                }
+                int start = cells[random.nextInt(cells.length)];
+                int goal = cells[random.nextInt(cells.length)];
+                PathResult cached = cache.solve(grid, start, goal, context);
+                assertEquals(solver.solve(grid, start, goal, context).getCost(), cached.getCost());
+                if (cached.isFound()) {
+                    Reference.assertValidPath(grid, movement, null, cached, start, goal);
+                }
+            }
+            assertTrue(cache.getHits() > 0, "queries were answered from the cache");
+            assertTrue(cache.getInvalidations() > 0, "changes invalidated cached paths");
+            cache.close();
+        }
+    }
+
+    @Test
+    void capacityIsBounded() {
+        Random random = new Random(62);
+        Grid grid = Reference.randomGrid(random, 40, 40, 0.2);
+        PathCache cache = new PathCache(new AStarSolver(), grid, 16);
+        for (int query = 0; query < 200; query++) {
+            cache.solve(grid, Reference.randomCell(random, grid), Reference.randomCell(random, grid));
+        }
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.getEvictions() > 0);
+        cache.close();
+    }
+}
@@ -0,0 +1,143 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plain implementations the solvers are checked against, and random grids to check them on.
+ * Kept as simple as possible rather than fast, so they are easy to trust.
+ */
+final class Reference {
+
+    private Reference() {
+    }
+
+    /**
+     * @param density Fraction of cells to block, cells may be picked more than once
+     * @return Grid of the given size with randomly blocked cells
+     */
+    static Grid randomGrid(Random random, int width, int height, double density) {
+        Grid grid = new Grid(width, height);
+        for (int i = 0; i < width * height * density; i++) {
+            grid.setWalkable(random.nextInt(width), random.nextInt(height), false);
+        }
+        return grid;
+    }
+
+    static int randomCell(Random random, Grid grid) {
+        return grid.index(random.nextInt(grid.getWidth()), random.nextInt(grid.getHeight()));
+    }
+
+    /**
+     * Dijkstra over all cells with a priority queue of (cost, cell) pairs.
+     *
+     * @param costs Terrain costs, entering a cell costs the step cost times the cost of the cell, or null
+     * @return Cost of the cheapest path, or -1 if there is none
+     */
+    static long dijkstra(Grid grid, MovementModel movement, TerrainCosts costs, int start, int goal) {
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return -1;
+        }
+        long[] distance = new long[grid.size()];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[start] = 0;
+        PriorityQueue<long[]> queue = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        queue.add(new long[]{0, start});
+        while (!queue.isEmpty()) {
+            long[] entry = queue.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > distance[cell]) {
+                continue;
+            }
+            if (cell == goal) {
+                return entry[0];
+            }
+            for (OrdinalDirection dir : movement.directions()) {
+                int x = grid.x(cell) + dir.dx;
+                int y = grid.y(cell) + dir.dy;
+                if (!grid.isWalkable(x, y) || !isAllowed(grid, movement, grid.x(cell), grid.y(cell), dir.dx, dir.dy)) {
+                    continue;
+                }
+                int next = grid.index(x, y);
+                long cost = entry[0] + (long) dir.cost * (costs != null ? costs.getCost(x, y) : 1);
+                if (cost < distance[next]) {
+                    distance[next] = cost;
+                    queue.add(new long[]{cost, next});
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Labels of the connected components by breadth-first flood fill, numbered in row-major order of their first
+     * cell starting at 1, with 0 for blocked cells.
+     */
+    static int[] floodFill(Grid grid, MovementModel movement) {
+        int[] labels = new int[grid.size()];
+        int[] queue = new int[grid.size()];
+        int label = 0;
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int first = grid.index(x, y);
+                if (!grid.isWalkable(first) || labels[first] != 0) {
+                    continue;
+                }
+                label++;
+                labels[first] = label;
+                int tail = 0;
+                queue[tail++] = first;
+                for (int head = 0; head < tail; head++) {
+                    int cell = queue[head];
+                    for (OrdinalDirection dir : movement.directions()) {
+                        int nx = grid.x(cell) + dir.dx;
+                        int ny = grid.y(cell) + dir.dy;
+                        if (grid.isWalkable(nx, ny) && labels[grid.index(nx, ny)] == 0
+                                && isAllowed(grid, movement, grid.x(cell), grid.y(cell), dir.dx, dir.dy)) {
+                            labels[grid.index(nx, ny)] = label;
+                            queue[tail++] = grid.index(nx, ny);
+                        }
+                    }
+                }
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Check that a result is a complete path from start to goal made of allowed steps, and that its cost is the
+     * sum of its steps.
+     */
+    static void assertValidPath(Grid grid, MovementModel movement, TerrainCosts costs, PathResult path,
+                                int start, int goal) {
+        assertTrue(path.isFound(), "path found");
+        assertEquals(start, path.getCell(0), "path starts at start");
+        assertEquals(goal, path.getCell(path.getLength() - 1), "path ends at goal");
+        long cost = 0;
+        for (int i = 1; i < path.getLength(); i++) {
+            int x = path.getX(i - 1);
+            int y = path.getY(i - 1);
+            int dx = path.getX(i) - x;
+            int dy = path.getY(i) - y;
+            assertTrue(Math.abs(dx) <= 1 && Math.abs(dy) <= 1 && (dx != 0 || dy != 0), "step to a neighbour");
+            assertTrue(grid.isWalkable(path.getCell(i)), "step onto a walkable cell");
+            assertTrue(isAllowed(grid, movement, x, y, dx, dy), "step allowed by " + movement);
+            cost += (dx != 0 && dy != 0 ? 14L : 10L) * (costs != null ? costs.getCost(x + dx, y + dy) : 1);
+        }
+        assertEquals(cost, path.getCost(), "cost is the sum of the steps");
+    }
+
+    private static boolean isAllowed(Grid grid, MovementModel movement, int x, int y, int dx, int dy) {
+        if (dx == 0 || dy == 0) {
+            return true;
+        }
+        return movement.allowsDiagonal()
+                && (movement.allowsCornerCutting() || grid.isWalkable(x + dx, y) && grid.isWalkable(x, y + dy));
+    }
+}
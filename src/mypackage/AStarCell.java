@@ -64,15 +64,15 @@ public class AStarCell {
     }
 
     /**
-     * Simple distance heuristic to simplify distance calculation between 2 cells.
+     * Octile distance between 2 cells, counting a diagonal step as 1.4 straight steps like {@link #updateGCost}.
      *
      * @param v Destination cell
      * @return Heuristic distance
      */
     public double distanceHeuristic(AStarCell v) {
-        double vx = (double) v.x - this.x;
-        double vy = (double) v.y - this.y;
-        return Math.abs(vx) + Math.abs(vy);
+        double vx = Math.abs((double) v.x - this.x);
+        double vy = Math.abs((double) v.y - this.y);
+        return Math.max(vx, vy) + 0.4 * Math.min(vx, vy);
     }
 
     /**
@@ -82,21 +82,7 @@ public class AStarCell {
      * @return New point in the direction from the current cell.
      */
     public Point positionFromDirection(OrdinalDirection direction) {
-        int newX = this.x;
-        int newY = this.y;
-        if (direction == OrdinalDirection.NORTH || direction == OrdinalDirection.NORTHEAST || direction == OrdinalDirection.NORTHWEST) {
-            newY -= 1;
-        }
-        if (direction == OrdinalDirection.SOUTH || direction == OrdinalDirection.SOUTHWEST || direction == OrdinalDirection.SOUTHEAST) {
-            newY += 1;
-        }
-        if (direction == OrdinalDirection.WEST || direction == OrdinalDirection.NORTHWEST || direction == OrdinalDirection.SOUTHWEST) {
-            newX += 1;
-        }
-        if (direction == OrdinalDirection.EAST || direction == OrdinalDirection.NORTHEAST || direction == OrdinalDirection.SOUTHEAST) {
-            newX -= 1;
-        }
-        return new Point(newX, newY);
+        return new Point(this.x + direction.dx, this.y + direction.dy);
     }
 
     /*
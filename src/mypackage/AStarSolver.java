@@ -1,108 +1,333 @@
 package mypackage;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 
-public class AStarSolver {
-    private static PriorityQueue<AStarCell> pQueue;
+public class AStarSolver implements PathFinder {
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final TerrainCosts costs;
 
     /**
-     * Solve pathfinding problem given a map of cells with a start and stop position.
+     * Create solver for 8-connected grids using the octile heuristic.
+     */
+    public AStarSolver() {
+        this(MovementModel.EIGHT_CONNECTED);
+    }
+
+    /**
+     * Create solver using the default heuristic of the movement model.
      *
-     * @param cellMap Matrix of cells
-     * @param start   Start position
-     * @param finish  Stop position
+     * @param movement Allowed moves
+     */
+    public AStarSolver(MovementModel movement) {
+        this(movement, movement.getDefaultHeuristic());
+    }
+
+    /**
+     * @param movement  Allowed moves
+     * @param heuristic Estimate of remaining cost, use {@link Heuristic#weighted(double)} to trade optimality for speed
      */
-    public static void solve(AStarCell[][] cellMap, AStarCell start, AStarCell finish) {
-        // Create priority queue with comparator comparing costs
-        pQueue = new PriorityQueue<>(
-                Comparator.comparingDouble(AStarCell::getTotalCost));
-        pQueue.add(start);
-
-        AStarCell path;
-        do {
-            // Check if current thread has been interrupted from main
-            if (Thread.currentThread().isInterrupted()) {
-                return;
+    public AStarSolver(MovementModel movement, Heuristic heuristic) {
+        this(movement, heuristic, null);
+    }
+
+    /**
+     * Create solver for terrain with different traversal costs. Entering a cell costs the step cost times the
+     * cost of the cell, and the heuristic is scaled by the lowest cost of the terrain.
+     * Large costs make for large F costs, so searches switch a context with a {@link BucketQueue} to an
+     * {@link IndexedHeap} when the costs could make its buckets too many. Paths costing more than an int can hold
+     * end the search with an {@link ArithmeticException}.
+     *
+     * @param movement  Allowed moves
+     * @param heuristic Estimate of remaining cost for terrain of cost 1
+     * @param costs     Costs of the grids searched, or null for uniform cost
+     */
+    public AStarSolver(MovementModel movement, Heuristic heuristic, TerrainCosts costs) {
+        this.movement = movement;
+        this.heuristic = heuristic;
+        this.costs = costs;
+    }
+
+    /**
+     * Find the cheapest path. When a limit of the context stops the search, the result holds a partial path to
+     * the reached cell with the lowest heuristic instead, see {@link PathResult#isPartial()}.
+     */
+    @Override
+    public PathResult solve(Grid grid, int start, int goal, SearchContext context) {
+        if (costs != null) {
+            return solveWeighted(grid, start, goal, context);
+        }
+        context.reset(grid.size());
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return context.finish(PathResult.notFound(0));
+        }
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+        int[] offsets = grid.neighbourOffsets();
+
+        // Reached cell with the lowest heuristic, where a stopped search leads to
+        int closest = start;
+        int closestH = heuristic.estimate(grid.x(start), grid.y(start), goalX, goalY);
+        context.update(start, 0, -1);
+        context.push(start, closestH);
+        OrdinalDirection[] directions = movement.directions();
+
+        while (!context.isOpenEmpty()) {
+            int current = context.pop();
+            if (current == goal) {
+                return context.finish(tracePath(grid, context, goal, PathResult.Status.FOUND));
             }
-            // If our queue is empty we have run out of viable paths to follow. This algorithm was not able to find a solution.
-            if (pQueue.isEmpty()) {
-                JOptionPane.showMessageDialog(null, "No solution found!", "Error", JOptionPane.ERROR_MESSAGE, UIManager.getIcon("OptionPane.errorIcon"));
-                return;
+            if (context.shouldStop()) {
+                return context.finish(tracePath(grid, context, closest, context.getStopReason()));
             }
-            // Check all surrounding cells of the highest priority entry in the queue
-            path = selectNeighbours(cellMap, pQueue.poll(), finish);
-        } while (path == null);
+            context.close(current);
 
-        // Path found, trace path using parent references from finish to start.
-        path = path.getParent();
-        while (path.getParent() != null) {
-            path.setState(AStarCell.CellState.PATH);
-            Main.setLabelColor(path, Color.yellow);
-            path = path.getParent();
+            int x = grid.x(current);
+            int y = grid.y(current);
+            int g = context.getGCost(current);
+            for (OrdinalDirection dir : directions) {
+                // The blocked border around the grid makes bounds checks unnecessary
+                int next = current + offsets[dir.ordinal()];
+                if (!grid.isWalkable(next) || context.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                    continue;
+                }
+                int newCost = g + dir.cost;
+                if (newCost < context.getGCost(next)) {
+                    int h = heuristic.estimate(x + dir.dx, y + dir.dy, goalX, goalY);
+                    if (h < closestH) {
+                        closest = next;
+                        closestH = h;
+                    }
+                    context.update(next, newCost, current);
+                    context.push(next, newCost + h);
+                }
+            }
         }
+        return context.finish(PathResult.notFound(context.getExpanded()));
     }
 
     /**
-     * Check all cells surrounding given cell in the matrix.
-     * Returns neighbouring cell if at the position of the finishing cell.
-     *
-     * @param cellMap  Matrix of cells representing map
-     * @param position Position where we are looking around
-     * @param finish   Finishing position
-     * @return Cell if finishing cell is found
+     * Same search as {@link #solve} with a cost read per neighbour, kept separate so grids without terrain costs
+     * run the plain loop.
      */
-    private static AStarCell selectNeighbours(AStarCell[][] cellMap, AStarCell position, AStarCell finish) {
-        for (int i = 0; i < 8; i++) {  // all ordinal directions.
-            OrdinalDirection dir = OrdinalDirection.getDirection(i);
-            Point p = position.positionFromDirection(dir);
-            if (isPositionTraversable(cellMap, p)) {
-                AStarCell newPosition = cellMap[p.y][p.x];
-                if (newPosition.equals(finish)) {
-                    newPosition.setParent(position);
-                    return newPosition;
+    private PathResult solveWeighted(Grid grid, int start, int goal, SearchContext context) {
+        costs.checkGrid(grid);
+        context.reset(grid.size(), maxKey(grid));
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return context.finish(PathResult.notFound(0));
+        }
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+        int[] offsets = grid.neighbourOffsets();
+        int minCost = costs.getMinCost();
+
+        int closest = start;
+        int closestH = heuristic.estimate(grid.x(start), grid.y(start), goalX, goalY);
+        context.update(start, 0, -1);
+        context.push(start, checkedKey((long) minCost * closestH));
+        OrdinalDirection[] directions = movement.directions();
+
+        while (!context.isOpenEmpty()) {
+            int current = context.pop();
+            if (current == goal) {
+                return context.finish(tracePath(grid, context, goal, PathResult.Status.FOUND));
+            }
+            if (context.shouldStop()) {
+                return context.finish(tracePath(grid, context, closest, context.getStopReason()));
+            }
+            context.close(current);
+
+            int x = grid.x(current);
+            int y = grid.y(current);
+            int g = context.getGCost(current);
+            for (OrdinalDirection dir : directions) {
+                int next = current + offsets[dir.ordinal()];
+                if (!grid.isWalkable(next) || context.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                    continue;
                 }
-                boolean gCostUpdated = newPosition.updateGCost(position);
-                if (gCostUpdated) {
-                    newPosition.updateHCost(finish);
-                    pQueue.add(newPosition);
-                    newPosition.setState(AStarCell.CellState.SEEN);
-                    Main.setLabelColor(newPosition, Color.red);
+                long newCost = g + (long) dir.cost * costs.cost(next);
+                if (newCost < context.getGCost(next)) {
+                    int h = heuristic.estimate(x + dir.dx, y + dir.dy, goalX, goalY);
+                    // F is never below G, so checking it covers both
+                    int f = checkedKey(newCost + (long) minCost * h);
+                    if (h < closestH) {
+                        closest = next;
+                        closestH = h;
+                    }
+                    context.update(next, (int) newCost, current);
+                    context.push(next, f);
                 }
             }
         }
-        return null;
+        return context.finish(PathResult.notFound(context.getExpanded()));
     }
 
     /**
-     * Check if given point on matrix map is a traversable cell
+     * Find paths from many start cells to one shared goal with a single search.
+     * Runs Dijkstra backwards from the goal until every start cell is reached, which is valid because
+     * all movement models are symmetric. With terrain costs, the backward step into a neighbour is charged the
+     * cost of the cell it leaves, which is the cell the forward step enters. The heuristic of this solver is not used.
      *
-     * @param map Matrix of cells representing map
-     * @param p   Point to check at in matrix
-     * @return True if position is traversable (not start or blocked)
+     * @param grid    Grid to search on
+     * @param starts  Indices of start cells
+     * @param goal    Index of goal cell
+     * @param context Search state of the calling thread, reset before searching
+     * @return Path per start cell in the same order, each result reports the cells expanded by the shared search
+     */
+    public PathResult[] solveToGoal(Grid grid, int[] starts, int goal, SearchContext context) {
+        context.reset(grid.size(), maxKey(grid));
+        PathResult[] results = new PathResult[starts.length];
+        // Sorted distinct start cells, to look up whether an expanded cell is one of them
+        int[] targets = Arrays.stream(starts).filter(grid::isWalkable).sorted().distinct().toArray();
+        int remaining = targets.length;
+        if (costs != null) {
+            costs.checkGrid(grid);
+        }
+        if (grid.isWalkable(goal)) {
+            int[] offsets = grid.neighbourOffsets();
+            OrdinalDirection[] directions = movement.directions();
+            context.update(goal, 0, -1);
+            context.push(goal, 0);
+            while (remaining > 0 && !context.isOpenEmpty()) {
+                int current = context.pop();
+                context.close(current);
+                if (Arrays.binarySearch(targets, current) >= 0) {
+                    remaining--;
+                }
+
+                int g = context.getGCost(current);
+                int cellCost = costs != null ? costs.cost(current) : 1;
+                for (OrdinalDirection dir : directions) {
+                    int next = current + offsets[dir.ordinal()];
+                    if (!grid.isWalkable(next) || context.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                        continue;
+                    }
+                    long newCost = g + (long) dir.cost * cellCost;
+                    if (newCost < context.getGCost(next)) {
+                        int key = checkedKey(newCost);
+                        context.update(next, key, current);
+                        context.push(next, key);
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < starts.length; i++) {
+            int start = starts[i];
+            if (!grid.isWalkable(start) || !context.isClosed(start)) {
+                results[i] = PathResult.notFound(context.getExpanded());
+                continue;
+            }
+            // Parents point towards the goal, so the chain from start is already in path order
+            int length = 0;
+            for (int cell = start; cell != -1; cell = context.getParent(cell)) {
+                length++;
+            }
+            int[] cells = new int[length];
+            length = 0;
+            for (int cell = start; cell != -1; cell = context.getParent(cell)) {
+                cells[length++] = cell;
+            }
+            results[i] = new PathResult(cells, grid, context.getGCost(start), context.getExpanded());
+        }
+        return context.finish(results);
+    }
+
+    /**
+     * Rough bound of the keys of a search, the cost of crossing the grid on cells of the highest cost the layer
+     * can hold. Only decides whether a bucket queue is small enough, paths may cost more.
      */
-    private static boolean isPositionTraversable(AStarCell[][] map, Point p) {
-        int rows = map.length;
-        int columns = map[0].length;
-        int x = p.x;
-        int y = p.y;
+    private long maxKey(Grid grid) {
+        if (costs == null) {
+            return 0;
+        }
+        return 14L * costs.getMaxCost() * (grid.getWidth() + grid.getHeight());
+    }
 
-        if ((x >= columns || x < 0) || (y >= rows || y < 0)) { // Check out of bounds
-            return false;
+    /**
+     * @return Key as int
+     * @throws ArithmeticException If the key does not fit in an int, because terrain costs are too high for
+     *                             the length of the path
+     */
+    private static int checkedKey(long key) {
+        if (key > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Path cost " + key + " exceeds the int range, terrain costs are too high");
         }
-        return map[y][x].isTraversable();
+        return (int) key;
     }
 
-    enum OrdinalDirection {  // Enum to assign index to direction
-        NORTH, NORTHWEST,
-        WEST, SOUTHWEST,
-        SOUTH, SOUTHEAST,
-        EAST, NORTHEAST;
+    /**
+     * Follow parent references from goal, or the cell a stopped search got closest to, back to start.
+     *
+     * @param grid     Grid that was searched
+     * @param context  Context holding the parent references
+     * @param goal     Last cell of the path
+     * @param status   How the search ended
+     * @return Path ordered from start to goal
+     */
+    private static PathResult tracePath(Grid grid, SearchContext context, int goal, PathResult.Status status) {
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = context.getParent(cell)) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for (int cell = goal; cell != -1; cell = context.getParent(cell)) {
+            cells[--length] = cell;
+        }
+        return new PathResult(cells, grid, context.getGCost(goal), context.getExpanded(), status);
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * @return Terrain costs, or null if all cells cost the same
+     */
+    public TerrainCosts getCosts() {
+        return costs;
+    }
+
+    enum OrdinalDirection {  // Enum to assign index, offset and step cost to direction
+        NORTH(0, -1), NORTHWEST(-1, -1),
+        WEST(-1, 0), SOUTHWEST(-1, 1),
+        SOUTH(0, 1), SOUTHEAST(1, 1),
+        EAST(1, 0), NORTHEAST(1, -1);
 
         private static final OrdinalDirection[] list = OrdinalDirection.values();
 
+        final int dx;
+        final int dy;
+        final int cost;
+
+        OrdinalDirection(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
+            this.cost = dx != 0 && dy != 0 ? 14 : 10;
+        }
+
+        boolean isDiagonal() {
+            return dx != 0 && dy != 0;
+        }
+
+        /**
+         * @return Direction 45 degrees clockwise
+         */
+        OrdinalDirection previous() {
+            return list[(ordinal() + 7) & 7];
+        }
+
+        /**
+         * @return Direction 45 degrees counterclockwise
+         */
+        OrdinalDirection next() {
+            return list[(ordinal() + 1) & 7];
+        }
+
         public static OrdinalDirection getDirection(int i) {
             return list[i];
         }
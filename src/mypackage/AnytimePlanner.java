@@ -0,0 +1,289 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Anytime planner (ARA*) for one query: finds a first path quickly with a heavily weighted heuristic, then
+ * lowers the weight step by step until the path is optimal. Each iteration continues from the G costs of the
+ * previous one and only expands cells whose cost improved since, instead of searching again from scratch.
+ * <p>
+ * Work can be spread over several calls: {@link #step(int)} expands a fixed number of cells and returns, so a
+ * game can plan a little every tick, and {@link #plan(long, TimeUnit)} keeps improving until a time budget is
+ * spent. The best path so far and how far its cost can be above optimal are available between calls.
+ * <p>
+ * A planner is not thread safe, and the grid must not change while it is used.
+ */
+public class AnytimePlanner {
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    private static final int DEFAULT_WEIGHT = 300;
+    private static final int DEFAULT_WEIGHT_STEP = 50;
+
+    private final Grid grid;
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final int start;
+    private final int goal;
+    private final int goalX;
+    private final int goalY;
+    private final int weightStep;
+    private final int[] g;
+    private final int[] parent;
+    private final int[] closedStamp;
+    private final IndexedHeap open = new IndexedHeap();
+    // Cells improved after they were closed in this iteration, queued again by the next one
+    private final boolean[] inconsistent;
+    private int[] inconsistentCells = new int[16];
+    private int inconsistentCount;
+    // Heuristic weight in hundredths
+    private int weight;
+    private int iteration = 1;
+    private int expanded;
+    private boolean done;
+    private PathResult path;
+    private double bound = Double.POSITIVE_INFINITY;
+
+    /**
+     * Create planner for 8-connected movement, starting at weight 3 and lowering it by 0.5 per iteration.
+     *
+     * @param grid  Grid to plan on
+     * @param start Index of start cell
+     * @param goal  Index of goal cell
+     */
+    public AnytimePlanner(Grid grid, int start, int goal) {
+        this(grid, MovementModel.EIGHT_CONNECTED, start, goal, DEFAULT_WEIGHT / 100.0, DEFAULT_WEIGHT_STEP / 100.0);
+    }
+
+    /**
+     * @param grid       Grid to plan on
+     * @param movement   Allowed moves, the default heuristic of the model is used
+     * @param start      Index of start cell
+     * @param goal       Index of goal cell
+     * @param weight     Heuristic weight of the first iteration, at least 1
+     * @param weightStep Amount the weight is lowered by after every iteration, rounded to hundredths
+     */
+    public AnytimePlanner(Grid grid, MovementModel movement, int start, int goal, double weight, double weightStep) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("Weight must be at least 1: " + weight);
+        }
+        if (weightStep < 0.01) {
+            throw new IllegalArgumentException("Weight step must be at least 0.01: " + weightStep);
+        }
+        this.grid = grid;
+        this.movement = movement;
+        this.heuristic = movement.getDefaultHeuristic();
+        this.start = start;
+        this.goal = goal;
+        this.goalX = grid.x(goal);
+        this.goalY = grid.y(goal);
+        this.weight = (int) Math.round(weight * 100);
+        this.weightStep = (int) Math.round(weightStep * 100);
+        this.g = new int[grid.size()];
+        this.parent = new int[grid.size()];
+        this.closedStamp = new int[grid.size()];
+        this.inconsistent = new boolean[grid.size()];
+        Arrays.fill(g, INFINITY);
+        open.ensureCapacity(grid.size());
+        if (grid.isWalkable(start) && grid.isWalkable(goal)) {
+            g[start] = 0;
+            parent[start] = -1;
+            open.insertOrUpdate(start, key(start));
+        } else {
+            done = true;
+        }
+    }
+
+    /**
+     * Keep improving the path until it is optimal or the time is up. Time is checked every
+     * {@value SearchContext#CHECK_INTERVAL} expansions.
+     *
+     * @param timeout Time to spend
+     * @param unit    Unit of timeout
+     * @return Best path so far, see {@link #getPath()}
+     */
+    public PathResult plan(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!step(SearchContext.CHECK_INTERVAL) && System.nanoTime() - deadline < 0) {
+            // Keep improving
+        }
+        return result(PathResult.Status.DEADLINE_EXCEEDED);
+    }
+
+    /**
+     * Expand up to the given number of cells, continuing where the last call stopped.
+     *
+     * @param maxExpansions Number of cells to expand at most
+     * @return True if planning is finished, because the path is optimal or there is none
+     */
+    public boolean step(int maxExpansions) {
+        int budget = maxExpansions;
+        int[] offsets = grid.neighbourOffsets();
+        OrdinalDirection[] directions = movement.directions();
+        while (!done && budget > 0) {
+            // The iteration is over once no open cell can lead to a path cheaper than the weighted bound
+            if (open.isEmpty() || key(goal) <= open.peekLongKey()) {
+                finishIteration();
+                continue;
+            }
+            int current = open.pop();
+            closedStamp[current] = iteration;
+            expanded++;
+            budget--;
+
+            int gCurrent = g[current];
+            for (OrdinalDirection dir : directions) {
+                int next = current + offsets[dir.ordinal()];
+                if (!grid.isWalkable(next) || !movement.canStep(grid, current, dir)) {
+                    continue;
+                }
+                int newCost = gCurrent + dir.cost;
+                if (newCost >= g[next]) {
+                    continue;
+                }
+                g[next] = newCost;
+                parent[next] = current;
+                if (closedStamp[next] != iteration) {
+                    open.insertOrUpdate(next, key(next));
+                } else if (!inconsistent[next]) {
+                    inconsistent[next] = true;
+                    if (inconsistentCount == inconsistentCells.length) {
+                        inconsistentCells = Arrays.copyOf(inconsistentCells, inconsistentCount * 2);
+                    }
+                    inconsistentCells[inconsistentCount++] = next;
+                }
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Publish the path of the finished iteration, lower the weight and queue the cells to improve next.
+     */
+    private void finishIteration() {
+        if (g[goal] >= INFINITY) {
+            // Weighting only changes the order of expansions, so an exhausted search means there is no path
+            done = true;
+            return;
+        }
+        path = tracePath();
+        // Collect open and inconsistent cells, their lowest unweighted F cost bounds the optimal cost from below
+        int[] cells = new int[open.size() + inconsistentCount];
+        int count = 0;
+        while (!open.isEmpty()) {
+            cells[count++] = open.pop();
+        }
+        for (int i = 0; i < inconsistentCount; i++) {
+            int cell = inconsistentCells[i];
+            inconsistent[cell] = false;
+            cells[count++] = cell;
+        }
+        inconsistentCount = 0;
+        long lowest = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            lowest = Math.min(lowest, (long) g[cells[i]] + estimate(cells[i]));
+        }
+        bound = Math.max(1.0, Math.min(weight / 100.0, (double) g[goal] / lowest));
+        if (weight == 100 || bound == 1.0) {
+            bound = 1.0;
+            done = true;
+            return;
+        }
+        weight = Math.max(100, weight - weightStep);
+        iteration++;
+        for (int i = 0; i < count; i++) {
+            open.insertOrUpdate(cells[i], key(cells[i]));
+        }
+    }
+
+    /**
+     * Priority of a cell, the G cost plus the weighted heuristic, in hundredths.
+     */
+    private long key(int cell) {
+        return 100L * g[cell] + (long) weight * estimate(cell);
+    }
+
+    private int estimate(int cell) {
+        return heuristic.estimate(grid.x(cell), grid.y(cell), goalX, goalY);
+    }
+
+    /**
+     * Follow parents back from the goal. Cells improved after the goal was reached can make the path cheaper than
+     * the G cost of the goal, so the cost is summed over the steps.
+     */
+    private PathResult tracePath() {
+        int length = 0;
+        for (int cell = goal; cell != -1; cell = parent[cell]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for (int cell = goal; cell != -1; cell = parent[cell]) {
+            cells[--length] = cell;
+        }
+        int cost = 0;
+        for (int i = 1; i < cells.length; i++) {
+            boolean diagonal = grid.x(cells[i]) != grid.x(cells[i - 1]) && grid.y(cells[i]) != grid.y(cells[i - 1]);
+            cost += diagonal ? 14 : 10;
+        }
+        return new PathResult(cells, grid, cost, expanded);
+    }
+
+    /**
+     * Best path found so far. If no path is known yet, the result is empty and stopped by the budget, or not
+     * found if planning is finished. The expanded count covers all iterations up to the one that found the path.
+     *
+     * @return Best path so far
+     */
+    public PathResult getPath() {
+        return result(PathResult.Status.BUDGET_EXHAUSTED);
+    }
+
+    private PathResult result(PathResult.Status unfinished) {
+        if (path != null) {
+            return path;
+        }
+        return done ? PathResult.notFound(expanded) : PathResult.stopped(unfinished, expanded);
+    }
+
+    /**
+     * @return True if the path is optimal or there is none
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return Factor the cost of the current path is at most above optimal, 1 when it is optimal,
+     * infinite while no path is known
+     */
+    public double getBound() {
+        return bound;
+    }
+
+    /**
+     * @return Heuristic weight of the running iteration
+     */
+    public double getWeight() {
+        return weight / 100.0;
+    }
+
+    /**
+     * @return Number of cells expanded over all calls
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+}
@@ -0,0 +1,295 @@
+package mypackage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Solves many path queries on the same grid in parallel.
+ * Queries are spread over a work-stealing {@link ForkJoinPool} and every worker thread reuses its own
+ * search context. Queries sharing a goal are answered together by one backwards search from that goal.
+ * <p>
+ * Single queries can also be submitted asynchronously with a timeout, for callers that must not wait on
+ * a slow query.
+ */
+public class BatchSolver {
+    private static final ThreadLocal<SearchContext> CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+    private static final PathResult TIMED_OUT = PathResult.stopped(PathResult.Status.DEADLINE_EXCEEDED, 0);
+    // Time a running search gets after its timeout to return a partial path before the future is completed
+    private static final long LATE_RESULT_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final PathFinder finder;
+    private final AStarSolver reverseSolver;
+    private final ForkJoinPool pool;
+    private volatile SearchObserver observer;
+    private volatile ConnectedComponents components;
+    private volatile int expansionBudget = Integer.MAX_VALUE;
+
+    /**
+     * Create batch solver for 8-connected grids running on the common pool.
+     */
+    public BatchSolver() {
+        this(new AStarSolver());
+    }
+
+    /**
+     * Create batch solver running on the common pool.
+     *
+     * @param solver Solver for single queries, its movement model and terrain costs are also used for grouped queries
+     */
+    public BatchSolver(AStarSolver solver) {
+        this(solver, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param solver Solver for single queries, its movement model and terrain costs are also used for grouped queries
+     * @param pool   Pool to run queries on
+     */
+    public BatchSolver(AStarSolver solver, ForkJoinPool pool) {
+        this(solver, new AStarSolver(solver.getMovement(), solver.getHeuristic(), solver.getCosts()), pool);
+    }
+
+    /**
+     * Create batch solver for any finder. Queries sharing a goal are searched without terrain costs, use
+     * {@link #BatchSolver(AStarSolver, ForkJoinPool)} for grids with terrain costs.
+     *
+     * @param finder   Solver for queries that do not share their goal, searching with uniform costs
+     * @param movement Movement model of finder, used for the backwards search of queries sharing a goal
+     * @param pool     Pool to run queries on
+     */
+    public BatchSolver(PathFinder finder, MovementModel movement, ForkJoinPool pool) {
+        this(finder, new AStarSolver(movement), pool);
+    }
+
+    private BatchSolver(PathFinder finder, AStarSolver reverseSolver, ForkJoinPool pool) {
+        this.finder = finder;
+        this.reverseSolver = reverseSolver;
+        this.pool = pool;
+    }
+
+    /**
+     * Solve all queries on a grid. The grid must not be modified until this method returns.
+     *
+     * @param grid    Grid to search on
+     * @param queries Queries to solve
+     * @return Result per query, in the same order as the queries
+     */
+    public List<PathResult> solveAll(Grid grid, List<PathQuery> queries) {
+        PathResult[] results = new PathResult[queries.size()];
+        ConnectedComponents components = this.components;
+        if (components != null && components.getGrid() != grid) {
+            components = null;
+        }
+        // Group indices of queries by goal, keeping first-seen order
+        Map<Integer, List<Integer>> byGoal = new LinkedHashMap<>();
+        for (int i = 0; i < queries.size(); i++) {
+            PathQuery query = queries.get(i);
+            if (components != null && !components.isReachable(query.getStart(), query.getGoal())) {
+                // Unreachable starts would make the backwards search of their group flood the whole component
+                results[i] = PathResult.notFound(0);
+                continue;
+            }
+            byGoal.computeIfAbsent(query.getGoal(), goal -> new ArrayList<>()).add(i);
+        }
+        int[][] groups = new int[byGoal.size()][];
+        int g = 0;
+        for (List<Integer> group : byGoal.values()) {
+            groups[g++] = group.stream().mapToInt(Integer::intValue).toArray();
+        }
+        pool.invoke(new GroupTask(grid, queries, groups, results, 0, groups.length));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Solve a single query on the pool without a time limit.
+     *
+     * @param grid  Grid to search on, must not be modified until the future completes
+     * @param query Query to solve
+     * @return Future of the result. Cancelling it stops the search if the finder honours limits.
+     */
+    public CompletableFuture<PathResult> submit(Grid grid, PathQuery query) {
+        return submit(grid, query, 0);
+    }
+
+    /**
+     * Solve a single query on the pool, stopping the search once the timeout has passed since the submit.
+     * Time spent waiting for a worker counts against the timeout. The future completes at the timeout even when
+     * the pool is busy, and at most a millisecond later if the finder does not stop: with an empty
+     * {@link PathResult.Status#DEADLINE_EXCEEDED} result, unless the search stopped on its own first. Only {@link AStarSolver} and {@link JumpPointSolver}
+     * honour the limits of their context and return a partial path, other finders keep their worker busy until
+     * their search ends and their result is dropped.
+     *
+     * @param grid    Grid to search on, must not be modified until the future completes
+     * @param query   Query to solve
+     * @param timeout Maximum time until the result
+     * @param unit    Unit of timeout
+     * @return Future of the result. Cancelling it stops the search if the finder honours limits.
+     */
+    public CompletableFuture<PathResult> submit(Grid grid, PathQuery query, long timeout, TimeUnit unit) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        return submit(grid, query, unit.toNanos(timeout));
+    }
+
+    private CompletableFuture<PathResult> submit(Grid grid, PathQuery query, long timeoutNanos) {
+        long submitted = System.nanoTime();
+        CompletableFuture<PathResult> future = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        if (timeoutNanos > 0) {
+            // Completed from a timer thread, a task still queued behind busy workers cannot do it
+            CompletableFuture.delayedExecutor(timeoutNanos, TimeUnit.NANOSECONDS).execute(() -> {
+                if (started.get()) {
+                    // A search that honours its deadline stops within a check interval, with its partial path
+                    future.completeOnTimeout(TIMED_OUT, LATE_RESULT_GRACE_NANOS, TimeUnit.NANOSECONDS);
+                } else {
+                    future.complete(TIMED_OUT);
+                }
+            });
+        }
+        pool.execute(() -> {
+            // Cancelled or timed out by the caller while waiting for a worker
+            if (future.isDone()) {
+                return;
+            }
+            started.set(true);
+            try {
+                future.complete(solveSubmitted(grid, query, future, timeoutNanos, submitted));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    private PathResult solveSubmitted(Grid grid, PathQuery query, CompletableFuture<PathResult> future,
+                                      long timeoutNanos, long submitted) {
+        long remaining = timeoutNanos;
+        if (timeoutNanos > 0) {
+            remaining -= System.nanoTime() - submitted;
+            if (remaining <= 0) {
+                return PathResult.stopped(PathResult.Status.DEADLINE_EXCEEDED, 0);
+            }
+        }
+        ConnectedComponents components = this.components;
+        if (components != null && components.getGrid() == grid
+                && !components.isReachable(query.getStart(), query.getGoal())) {
+            return PathResult.notFound(0);
+        }
+        SearchContext context = CONTEXTS.get();
+        context.setObserver(observer);
+        context.setExpansionBudget(expansionBudget);
+        context.setTimeout(remaining, TimeUnit.NANOSECONDS);
+        // Completing the future from outside, by cancelling it or at the timeout, stops the search
+        context.setCancelSignal(future::isDone);
+        try {
+            return finder.solve(grid, query.getStart(), query.getGoal(), context);
+        } finally {
+            context.setTimeout(0, TimeUnit.NANOSECONDS);
+            context.setCancelSignal(null);
+        }
+    }
+
+    /**
+     * Set observer notified of every search run by this batch solver, from the worker threads.
+     *
+     * @param observer Thread safe observer, or null to disable instrumentation
+     */
+    public void setObserver(SearchObserver observer) {
+        this.observer = observer;
+    }
+
+    /**
+     * Set maximum number of cells a single query may expand, for queries of batches and submitted queries.
+     * Searches of queries sharing a goal are not limited.
+     *
+     * @param budget Expansion budget, or Integer.MAX_VALUE for no limit
+     */
+    public void setExpansionBudget(int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Expansion budget must not be negative: " + budget);
+        }
+        this.expansionBudget = budget;
+    }
+
+    /**
+     * Set components used to answer queries without a path before any search, and to keep them out of grouped
+     * searches. Only used for batches on the grid of the components.
+     *
+     * @param components Components of the grid with the movement model of this solver, or null to search every query
+     */
+    public void setComponents(ConnectedComponents components) {
+        this.components = components;
+    }
+
+    /**
+     * Solve one group of queries that share a goal on the calling thread.
+     *
+     * @param grid    Grid to search on
+     * @param queries All queries of the batch
+     * @param group   Indices of queries in this group
+     * @param results Result array to fill in
+     */
+    private void solveGroup(Grid grid, List<PathQuery> queries, int[] group, PathResult[] results) {
+        SearchContext context = CONTEXTS.get();
+        context.setObserver(observer);
+        if (group.length == 1) {
+            PathQuery query = queries.get(group[0]);
+            context.setExpansionBudget(expansionBudget);
+            results[group[0]] = finder.solve(grid, query.getStart(), query.getGoal(), context);
+            return;
+        }
+        context.setExpansionBudget(Integer.MAX_VALUE);
+        int[] starts = new int[group.length];
+        for (int i = 0; i < group.length; i++) {
+            starts[i] = queries.get(group[i]).getStart();
+        }
+        PathResult[] groupResults = reverseSolver.solveToGoal(grid, starts, queries.get(group[0]).getGoal(), context);
+        for (int i = 0; i < group.length; i++) {
+            results[group[i]] = groupResults[i];
+        }
+    }
+
+    /**
+     * Splits a range of groups in half until a single group remains, so idle workers can steal the other half.
+     */
+    private class GroupTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Grid grid;
+        private final List<PathQuery> queries;
+        private final int[][] groups;
+        private final PathResult[] results;
+        private final int from;
+        private final int to;
+
+        private GroupTask(Grid grid, List<PathQuery> queries, int[][] groups, PathResult[] results, int from, int to) {
+            this.grid = grid;
+            this.queries = queries;
+            this.groups = groups;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    solveGroup(grid, queries, groups[from], results);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new GroupTask(grid, queries, groups, results, from, middle),
+                    new GroupTask(grid, queries, groups, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bidirectional A*: a forward search from the start and a backward search from the goal, each guided by its own
+ * heuristic, which meet in the middle. On maps where one end lies in a narrow region, the search from that end
+ * soon runs out of cells while the other end would have flooded large areas.
+ * <p>
+ * Every time one search reaches a cell the other search has reached, the sum of both G costs is the cost of a
+ * real path. The best such path is optimal once the lowest F cost on either open list is no lower than its cost,
+ * since any cheaper path would have a cell on both open lists with an F cost below it. This holds for consistent
+ * heuristics, such as the default heuristics of all movement models.
+ * <p>
+ * The two searches either alternate on the calling thread, always expanding from the smaller open list,
+ * or run on two threads when an executor is given.
+ */
+public class BidirectionalSolver implements PathFinder {
+    private static final ThreadLocal<SearchContext> BACKWARD_CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+    private static final long NO_MEETING = Long.MAX_VALUE;
+
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final Executor executor;
+
+    /**
+     * Create solver for 8-connected grids using the octile heuristic, searching on the calling thread.
+     */
+    public BidirectionalSolver() {
+        this(MovementModel.EIGHT_CONNECTED);
+    }
+
+    /**
+     * Create solver using the default heuristic of the movement model, searching on the calling thread.
+     *
+     * @param movement Allowed moves
+     */
+    public BidirectionalSolver(MovementModel movement) {
+        this(movement, movement.getDefaultHeuristic(), null);
+    }
+
+    /**
+     * @param movement  Allowed moves
+     * @param heuristic Estimate of remaining cost, must be consistent for optimal paths
+     * @param executor  Executor to run the backward search on while the calling thread runs the forward search,
+     *                  or null to alternate both searches on the calling thread
+     */
+    public BidirectionalSolver(MovementModel movement, Heuristic heuristic, Executor executor) {
+        this.movement = movement;
+        this.heuristic = heuristic;
+        this.executor = executor;
+    }
+
+    /**
+     * Find the optimal path. The forward search uses the given context, so its listener and observer only see
+     * the forward half. The result reports the cells expanded by both halves.
+     */
+    @Override
+    public PathResult solve(Grid grid, int start, int goal, SearchContext context) {
+        SearchContext backwardContext = BACKWARD_CONTEXTS.get();
+        context.reset(grid.size());
+        backwardContext.reset(grid.size());
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return context.finish(PathResult.notFound(0));
+        }
+        if (start == goal) {
+            return context.finish(new PathResult(new int[]{start}, grid, 0, 0));
+        }
+
+        // Best meeting found so far, as cost in the high half and cell in the low half
+        AtomicLong meeting = new AtomicLong(NO_MEETING);
+        boolean parallel = executor != null;
+        Frontier forward = new Frontier(grid, context, backwardContext, start, goal, meeting, parallel);
+        Frontier backward = new Frontier(grid, backwardContext, context, goal, start, meeting, parallel);
+        forward.partner = backward;
+        backward.partner = forward;
+        if (parallel) {
+            CompletableFuture<Void> backwardRun = CompletableFuture.runAsync(backward::run, executor);
+            forward.run();
+            backwardRun.join();
+        } else {
+            // Until either search proves the best meeting optimal or runs out of cells
+            boolean searching = true;
+            while (searching) {
+                searching = forward.own.openSize() <= backward.own.openSize() ? forward.step() : backward.step();
+            }
+        }
+
+        int expanded = context.getExpanded() + backwardContext.getExpanded();
+        long best = meeting.get();
+        if (best == NO_MEETING) {
+            return context.finish(PathResult.notFound(expanded));
+        }
+        return context.finish(tracePath(grid, context, backwardContext, (int) best, (int) (best >>> 32), expanded));
+    }
+
+    /**
+     * Join the forward parents from the meeting cell back to the start with the backward parents from the
+     * meeting cell on to the goal.
+     */
+    private static PathResult tracePath(Grid grid, SearchContext forward, SearchContext backward,
+                                        int meeting, int cost, int expanded) {
+        int length = 0;
+        for (int cell = meeting; cell != -1; cell = forward.getParent(cell)) {
+            length++;
+        }
+        int forwardLength = length;
+        for (int cell = backward.getParent(meeting); cell != -1; cell = backward.getParent(cell)) {
+            length++;
+        }
+        int[] cells = new int[length];
+        int i = forwardLength;
+        for (int cell = meeting; cell != -1; cell = forward.getParent(cell)) {
+            cells[--i] = cell;
+        }
+        i = forwardLength;
+        for (int cell = backward.getParent(meeting); cell != -1; cell = backward.getParent(cell)) {
+            cells[i++] = cell;
+        }
+        return new PathResult(cells, grid, cost, expanded);
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * One direction of the search. All movement models are symmetric, so the backward search uses the same steps.
+     */
+    private final class Frontier {
+        private final Grid grid;
+        private final SearchContext own;
+        private final SearchContext other;
+        private final int targetX;
+        private final int targetY;
+        private final AtomicLong meeting;
+        private final boolean parallel;
+        private final int[] offsets;
+        private final OrdinalDirection[] directions;
+        // Set by whichever search finishes first in parallel mode
+        private volatile boolean done;
+        private Frontier partner;
+
+        private Frontier(Grid grid, SearchContext own, SearchContext other, int source, int target,
+                         AtomicLong meeting, boolean parallel) {
+            this.grid = grid;
+            this.own = own;
+            this.other = other;
+            this.targetX = grid.x(target);
+            this.targetY = grid.y(target);
+            this.meeting = meeting;
+            this.parallel = parallel;
+            this.offsets = grid.neighbourOffsets();
+            this.directions = movement.directions();
+            update(source, 0, -1);
+            own.push(source, heuristic.estimate(grid.x(source), grid.y(source), targetX, targetY));
+        }
+
+        /**
+         * Expand cells until the search is done, then stop the other search too.
+         */
+        private void run() {
+            while (!done && step()) {
+                // Keep expanding
+            }
+            done = true;
+            partner.done = true;
+        }
+
+        /**
+         * Expand one cell.
+         *
+         * @return False if the search is done, because the best meeting is optimal or there are no cells left
+         */
+        private boolean step() {
+            if (own.isOpenEmpty() || own.peekOpenKey() >= meeting.get() >>> 32) {
+                return false;
+            }
+            int current = own.pop();
+            own.close(current);
+            int x = grid.x(current);
+            int y = grid.y(current);
+            int g = own.getGCost(current);
+            for (OrdinalDirection dir : directions) {
+                int next = current + offsets[dir.ordinal()];
+                if (!grid.isWalkable(next) || own.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                    continue;
+                }
+                int newCost = g + dir.cost;
+                if (newCost < own.getGCost(next)) {
+                    update(next, newCost, current);
+                    boolean seenByOther = parallel ? other.isSeenPublished(next) : other.isSeen(next);
+                    if (seenByOther) {
+                        offerMeeting(next, newCost + other.getGCost(next));
+                    }
+                    // Cells the other search closed have a known cheapest way to its end, and cells that
+                    // cannot beat the best meeting lead nowhere better, neither needs to be expanded
+                    int f = newCost + heuristic.estimate(x + dir.dx, y + dir.dy, targetX, targetY);
+                    if ((parallel || !seenByOther || !other.isClosed(next)) && f < meeting.get() >>> 32) {
+                        own.push(next, f);
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void update(int cell, int g, int from) {
+            if (parallel) {
+                own.updatePublished(cell, g, from);
+            } else {
+                own.update(cell, g, from);
+            }
+        }
+
+        private void offerMeeting(int cell, int cost) {
+            long candidate = (long) cost << 32 | cell;
+            meeting.accumulateAndGet(candidate, Math::min);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Bucket queue for small integer keys, such as F costs in the 10/14 cost model.
+ * Each key has a bucket holding a doubly linked list of cells, so insert, decrease-key and removal are O(1)
+ * and a pop only has to scan forward over empty buckets.
+ * Cells within a bucket are popped last in, first out, which favours cells closer to the goal on equal F cost.
+ */
+public class BucketQueue implements OpenList {
+    private int[] head = new int[0];      // First cell of bucket per key, -1 if empty
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private int[] key = new int[0];
+    private boolean[] queued = new boolean[0];
+    private int size;
+    private int minKey;                   // No bucket below this key holds a cell
+    private int maxKey = -1;              // Highest key used since last clear
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > next.length) {
+            next = Arrays.copyOf(next, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            key = Arrays.copyOf(key, capacity);
+            queued = Arrays.copyOf(queued, capacity);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int k = minKey; k <= maxKey && size > 0; k++) {
+            for (int cell = head[k]; cell != -1; cell = next[cell]) {
+                queued[cell] = false;
+                size--;
+            }
+        }
+        if (maxKey >= 0) {
+            Arrays.fill(head, 0, Math.min(maxKey + 1, head.length), -1);
+        }
+        size = 0;
+        minKey = 0;
+        maxKey = -1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int cell) {
+        return queued[cell];
+    }
+
+    @Override
+    public void insertOrDecrease(int cell, int newKey) {
+        if (newKey < 0) {
+            throw new IllegalArgumentException("Bucket queue keys must not be negative: " + newKey);
+        }
+        if (queued[cell]) {
+            if (newKey >= key[cell]) {
+                return;
+            }
+            unlink(cell);
+        } else {
+            queued[cell] = true;
+            size++;
+        }
+        if (newKey >= head.length) {
+            int oldLength = head.length;
+            head = Arrays.copyOf(head, Math.max(newKey + 1, oldLength * 2));
+            Arrays.fill(head, oldLength, head.length, -1);
+        }
+        key[cell] = newKey;
+        int first = head[newKey];
+        next[cell] = first;
+        previous[cell] = -1;
+        if (first != -1) {
+            previous[first] = cell;
+        }
+        head[newKey] = cell;
+        // Inconsistent heuristics can produce keys below the current minimum
+        if (newKey < minKey) {
+            minKey = newKey;
+        }
+        if (newKey > maxKey) {
+            maxKey = newKey;
+        }
+    }
+
+    @Override
+    public int pop() {
+        int cell = head[peekKey()];
+        unlink(cell);
+        queued[cell] = false;
+        size--;
+        return cell;
+    }
+
+    @Override
+    public int peekKey() {
+        while (head[minKey] == -1) {
+            minKey++;
+        }
+        return minKey;
+    }
+
+    private void unlink(int cell) {
+        int before = previous[cell];
+        int after = next[cell];
+        if (before == -1) {
+            head[key[cell]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != -1) {
+            previous[after] = before;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package mypackage;
+
+/**
+ * Source of the chunks of a {@link ChunkedGrid}, for example map files on disk or a procedural generator.
+ * Chunks are addressed by chunk coordinates, the chunk (cx, cy) covers the cells from
+ * (cx * size, cy * size) up to but excluding ((cx + 1) * size, (cy + 1) * size).
+ * Called from any thread that searches or edits the world, one call at a time.
+ */
+public interface ChunkProvider {
+    /**
+     * Load or generate a chunk. Has to return the same cells every time, unless they were changed and saved.
+     *
+     * @param chunkX X coordinate of chunk
+     * @param chunkY Y coordinate of chunk
+     * @param size   Width and height of the chunk in cells
+     * @return Grid of size by size cells
+     */
+    Grid load(int chunkX, int chunkY, int size);
+
+    /**
+     * Store a chunk whose cells were changed, before it is evicted from memory. Does nothing by default,
+     * which discards changes of evicted chunks.
+     *
+     * @param chunkX X coordinate of chunk
+     * @param chunkY Y coordinate of chunk
+     * @param chunk  Changed chunk
+     */
+    default void save(int chunkX, int chunkY, Grid chunk) {
+    }
+}
@@ -0,0 +1,156 @@
+package mypackage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * World of unbounded size made of square chunks, each a small {@link Grid} loaded on demand from a
+ * {@link ChunkProvider}. At most a fixed number of chunks is kept, the least recently used chunk is evicted
+ * when another one is needed, after saving it if its cells were changed. Memory therefore depends on the
+ * number of chunks kept and not on the size of the world.
+ * <p>
+ * Cells are addressed by world coordinates, which may be negative. Lookups are thread safe. As for
+ * {@link Grid}, cells must not be changed while searches are running.
+ * {@link ChunkedPathFinder} searches a chunked grid across chunk boundaries.
+ */
+public class ChunkedGrid {
+    private final ChunkProvider provider;
+    private final int chunkSize;
+    private final int shift;
+    private final int maxChunks;
+    private final Map<Long, Chunk> chunks;
+    private long loads;
+    private long evictions;
+
+    /**
+     * @param provider  Source of chunks
+     * @param chunkSize Width and height of every chunk, a power of two
+     * @param maxChunks Number of chunks to keep in memory, at least 4 so a search never evicts the chunks
+     *                  around a cell on a chunk corner while it looks at them
+     */
+    public ChunkedGrid(ChunkProvider provider, int chunkSize, int maxChunks) {
+        if (chunkSize <= 0 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("Chunk size must be a power of two: " + chunkSize);
+        }
+        if (maxChunks < 4) {
+            throw new IllegalArgumentException("At least 4 chunks must be kept: " + maxChunks);
+        }
+        this.provider = provider;
+        this.chunkSize = chunkSize;
+        this.shift = Integer.numberOfTrailingZeros(chunkSize);
+        this.maxChunks = maxChunks;
+        this.chunks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Chunk> eldest) {
+                if (size() <= ChunkedGrid.this.maxChunks) {
+                    return false;
+                }
+                Chunk chunk = eldest.getValue();
+                if (chunk.isModified()) {
+                    provider.save(chunk.chunkX, chunk.chunkY, chunk.grid);
+                }
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public boolean isWalkable(int x, int y) {
+        Grid grid = chunk(x >> shift, y >> shift).grid;
+        return grid.isWalkable(x & (chunkSize - 1), y & (chunkSize - 1));
+    }
+
+    /**
+     * Change a cell, loading its chunk if needed. The chunk is saved through the provider when it is evicted.
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        Grid grid = chunk(x >> shift, y >> shift).grid;
+        grid.setWalkable(x & (chunkSize - 1), y & (chunkSize - 1), walkable);
+    }
+
+    /**
+     * Save all changed chunks that are still in memory.
+     */
+    public synchronized void flush() {
+        for (Chunk chunk : chunks.values()) {
+            if (chunk.isModified()) {
+                provider.save(chunk.chunkX, chunk.chunkY, chunk.grid);
+                chunk.savedVersion = chunk.grid.getVersion();
+            }
+        }
+    }
+
+    /**
+     * @return Chunk at the chunk coordinates, loaded if it is not in memory
+     */
+    synchronized Chunk chunk(int chunkX, int chunkY) {
+        long key = (long) chunkX << 32 | chunkY & 0xFFFFFFFFL;
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            Grid grid = provider.load(chunkX, chunkY, chunkSize);
+            if (grid.getWidth() != chunkSize || grid.getHeight() != chunkSize) {
+                throw new IllegalStateException("Provider returned chunk of " + grid.getWidth() + "x"
+                        + grid.getHeight() + " for " + chunkX + "," + chunkY + ", expected " + chunkSize);
+            }
+            chunk = new Chunk(chunkX, chunkY, grid);
+            chunks.put(key, chunk);
+            loads++;
+        }
+        return chunk;
+    }
+
+    /*
+    GETTERS
+     */
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    int getShift() {
+        return shift;
+    }
+
+    public int getMaxChunks() {
+        return maxChunks;
+    }
+
+    /**
+     * @return Number of chunks in memory
+     */
+    public synchronized int getLoadedChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * @return Number of chunks loaded from the provider so far, including chunks loaded again after eviction
+     */
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * A loaded chunk and the version of its grid when it was last loaded or saved.
+     */
+    static final class Chunk {
+        final int chunkX;
+        final int chunkY;
+        final Grid grid;
+        private long savedVersion;
+
+        private Chunk(int chunkX, int chunkY, Grid grid) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.grid = grid;
+            this.savedVersion = grid.getVersion();
+        }
+
+        private boolean isModified() {
+            return grid.getVersion() != savedVersion;
+        }
+    }
+}
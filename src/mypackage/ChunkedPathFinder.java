@@ -0,0 +1,279 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+
+/**
+ * A* over a {@link ChunkedGrid}. The search works on world coordinates and loads chunks through the grid as it
+ * reaches them, so paths cross chunk boundaries like any other step and the start and goal may lie in chunks
+ * that are not loaded yet.
+ * <p>
+ * A world may be unbounded, so a search for an unreachable goal would never run out of cells. Every search
+ * therefore stops after a number of expansions, which also bounds the memory it takes, and returns a partial
+ * path to the reached cell with the lowest heuristic. The maximum number of loaded chunks should cover the area
+ * such a search explores, or chunks are evicted and loaded again during the search.
+ * <p>
+ * Search state is kept per thread and reused, a finder can be shared between threads.
+ */
+public class ChunkedPathFinder {
+    /**
+     * Expansions after which searches of finders created without a limit stop.
+     */
+    public static final int DEFAULT_MAX_EXPANSIONS = 1 << 20;
+
+    private final ThreadLocal<Search> searches = ThreadLocal.withInitial(Search::new);
+    private final ChunkedGrid world;
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final int maxExpansions;
+
+    /**
+     * Create finder for 8-connected movement, expanding at most {@link #DEFAULT_MAX_EXPANSIONS} cells per search.
+     *
+     * @param world World to search
+     */
+    public ChunkedPathFinder(ChunkedGrid world) {
+        this(world, MovementModel.EIGHT_CONNECTED, DEFAULT_MAX_EXPANSIONS);
+    }
+
+    /**
+     * @param world         World to search
+     * @param movement      Allowed moves, searched with their default heuristic
+     * @param maxExpansions Cells to expand before a search stops with {@link PathResult.Status#BUDGET_EXHAUSTED}
+     */
+    public ChunkedPathFinder(ChunkedGrid world, MovementModel movement, int maxExpansions) {
+        if (maxExpansions <= 0) {
+            throw new IllegalArgumentException("Expansion limit must be positive: " + maxExpansions);
+        }
+        this.world = world;
+        this.movement = movement;
+        this.heuristic = movement.getDefaultHeuristic();
+        this.maxExpansions = maxExpansions;
+    }
+
+    /**
+     * Find the cheapest path between two cells of the world.
+     *
+     * @return Path in world coordinates, partial if the expansion limit stopped the search
+     */
+    public WorldPath solve(int startX, int startY, int goalX, int goalY) {
+        return searches.get().find(startX, startY, goalX, goalY);
+    }
+
+    public ChunkedGrid getWorld() {
+        return world;
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    public int getMaxExpansions() {
+        return maxExpansions;
+    }
+
+    /**
+     * Search state of one thread. States are numbered in the order they are reached and found again through an
+     * open-addressing table keyed by their coordinates, cleared by moving to a new generation.
+     */
+    private final class Search {
+        private int[] stateX = new int[1024];
+        private int[] stateY = new int[1024];
+        private int[] stateG = new int[1024];
+        private int[] stateParent = new int[1024];
+        private boolean[] stateClosed = new boolean[1024];
+        private int stateCount;
+        // F cost in the high half and inverted state number in the low half, so among states of equal F cost
+        // the newest, usually the furthest along, comes first
+        private final LongHeap heap = new LongHeap();
+        private long[] tableKeys = new long[1 << 12];
+        private int[] tableStates = new int[1 << 12];
+        private int[] tableStamps = new int[1 << 12];
+        private int generation;
+        // Chunk of the last lookup, most steps stay in it
+        private int chunkX;
+        private int chunkY;
+        private Grid chunk;
+
+        private WorldPath find(int startX, int startY, int goalX, int goalY) {
+            clear();
+            if (!isWalkable(startX, startY) || !isWalkable(goalX, goalY)) {
+                return WorldPath.notFound(0);
+            }
+            int start = addState(startX, startY, 0, -1);
+            int closest = start;
+            int closestH = heuristic.estimate(startX, startY, goalX, goalY);
+            push(start, closestH);
+            OrdinalDirection[] directions = movement.directions();
+            int expanded = 0;
+
+            while (!heap.isEmpty()) {
+                int current = ~(int) heap.pop();
+                if (stateClosed[current]) {
+                    continue;
+                }
+                int x = stateX[current];
+                int y = stateY[current];
+                if (x == goalX && y == goalY) {
+                    return tracePath(current, expanded, PathResult.Status.FOUND);
+                }
+                if (expanded >= maxExpansions) {
+                    return tracePath(closest, expanded, PathResult.Status.BUDGET_EXHAUSTED);
+                }
+                stateClosed[current] = true;
+                expanded++;
+
+                for (OrdinalDirection dir : directions) {
+                    int nextX = x + dir.dx;
+                    int nextY = y + dir.dy;
+                    if (!isWalkable(nextX, nextY) || !canStep(x, y, dir)) {
+                        continue;
+                    }
+                    int g = stateG[current] + dir.cost;
+                    int next = getState(nextX, nextY);
+                    if (next == -1) {
+                        next = addState(nextX, nextY, g, current);
+                    } else if (!stateClosed[next] && g < stateG[next]) {
+                        stateG[next] = g;
+                        stateParent[next] = current;
+                    } else {
+                        continue;
+                    }
+                    int h = heuristic.estimate(nextX, nextY, goalX, goalY);
+                    if (h < closestH) {
+                        closest = next;
+                        closestH = h;
+                    }
+                    // Outdated entries of the state are skipped once it is closed
+                    push(next, g + h);
+                }
+            }
+            return WorldPath.notFound(expanded);
+        }
+
+        private void push(int state, int f) {
+            heap.push((long) f << 32 | ~state & 0xFFFFFFFFL);
+        }
+
+        private boolean canStep(int x, int y, OrdinalDirection dir) {
+            if (movement.allowsCornerCutting() || !dir.isDiagonal()) {
+                return true;
+            }
+            return isWalkable(x + dir.dx, y) && isWalkable(x, y + dir.dy);
+        }
+
+        private boolean isWalkable(int x, int y) {
+            int cx = x >> world.getShift();
+            int cy = y >> world.getShift();
+            if (chunk == null || cx != chunkX || cy != chunkY) {
+                // An evicted chunk stays readable, the cells of the world do not change during a search
+                chunk = world.chunk(cx, cy).grid;
+                chunkX = cx;
+                chunkY = cy;
+            }
+            int mask = world.getChunkSize() - 1;
+            return chunk.isWalkable(x & mask, y & mask);
+        }
+
+        private WorldPath tracePath(int state, int expanded, PathResult.Status status) {
+            int length = 0;
+            for (int s = state; s != -1; s = stateParent[s]) {
+                length++;
+            }
+            int[] xs = new int[length];
+            int[] ys = new int[length];
+            for (int s = state; s != -1; s = stateParent[s]) {
+                length--;
+                xs[length] = stateX[s];
+                ys[length] = stateY[s];
+            }
+            return new WorldPath(xs, ys, stateG[state], expanded, status);
+        }
+
+        private void clear() {
+            stateCount = 0;
+            heap.clear();
+            chunk = null;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(tableStamps, 0);
+                generation = 1;
+            }
+        }
+
+        private int addState(int x, int y, int g, int parent) {
+            if (stateCount == stateX.length) {
+                int capacity = stateCount * 2;
+                stateX = Arrays.copyOf(stateX, capacity);
+                stateY = Arrays.copyOf(stateY, capacity);
+                stateG = Arrays.copyOf(stateG, capacity);
+                stateParent = Arrays.copyOf(stateParent, capacity);
+                stateClosed = Arrays.copyOf(stateClosed, capacity);
+            }
+            if (stateCount * 2 >= tableKeys.length) {
+                growTable();
+            }
+            int state = stateCount++;
+            stateX[state] = x;
+            stateY[state] = y;
+            stateG[state] = g;
+            stateParent[state] = parent;
+            stateClosed[state] = false;
+            long key = key(x, y);
+            int mask = tableKeys.length - 1;
+            int i = slot(key, mask);
+            while (tableStamps[i] == generation) {
+                i = (i + 1) & mask;
+            }
+            tableKeys[i] = key;
+            tableStates[i] = state;
+            tableStamps[i] = generation;
+            return state;
+        }
+
+        /**
+         * @return Number of the state at the coordinates, or -1 if they were not reached yet
+         */
+        private int getState(int x, int y) {
+            long key = key(x, y);
+            int mask = tableKeys.length - 1;
+            for (int i = slot(key, mask); tableStamps[i] == generation; i = (i + 1) & mask) {
+                if (tableKeys[i] == key) {
+                    return tableStates[i];
+                }
+            }
+            return -1;
+        }
+
+        private void growTable() {
+            long[] oldKeys = tableKeys;
+            int[] oldStates = tableStates;
+            int[] oldStamps = tableStamps;
+            tableKeys = new long[oldKeys.length * 2];
+            tableStates = new int[oldKeys.length * 2];
+            tableStamps = new int[oldKeys.length * 2];
+            int mask = tableKeys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldStamps[j] == generation) {
+                    int i = slot(oldKeys[j], mask);
+                    while (tableStamps[i] == generation) {
+                        i = (i + 1) & mask;
+                    }
+                    tableKeys[i] = oldKeys[j];
+                    tableStates[i] = oldStates[j];
+                    tableStamps[i] = generation;
+                }
+            }
+        }
+
+        private long key(int x, int y) {
+            return (long) x << 32 | y & 0xFFFFFFFFL;
+        }
+
+        private int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32) & mask;
+        }
+    }
+}
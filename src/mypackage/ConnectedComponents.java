@@ -0,0 +1,358 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Labels every walkable cell of a grid with the id of its connected component, so whether a path exists can be
+ * answered in O(1) before searching. Without it, a query without a path floods its whole component first.
+ * <p>
+ * The labels follow grid changes as a {@link GridListener}. An opened cell joins the components around it by
+ * relabelling all but the largest. A blocked cell can split its component: if the cells around it are not
+ * connected to each other right around it, searches from each of them run in lockstep until they meet, and
+ * pieces that turn out to be cut off get new ids. Both cost time in proportion to the smaller parts.
+ * <p>
+ * With corner cutting, cells touching at a corner are connected. Without corner cutting a diagonal step needs
+ * both cells beside it open, so components are the same as for straight steps only.
+ * Labels may be read from any thread while the grid is not modified.
+ */
+public class ConnectedComponents implements GridListener {
+    private static final int NONE = 0;
+
+    private final Grid grid;
+    private final MovementModel movement;
+    private final int[] offsets;
+    // Neighbour directions that connect cells, as ordinals of AStarSolver.OrdinalDirection
+    private final int[] connecting;
+    private final int[] label;
+    private int[] size = new int[16];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int nextId = 1;
+    private int componentCount;
+    // Scratch state of searches during updates
+    private final int[] stamp;
+    private final int[] owner;
+    private int generation;
+    private int[][] queues = new int[4][16];
+
+    /**
+     * Label all walkable cells and start following changes of the grid.
+     *
+     * @param grid     Grid to label
+     * @param movement Movement model the labels are used with
+     */
+    public ConnectedComponents(Grid grid, MovementModel movement) {
+        this.grid = grid;
+        this.movement = movement;
+        this.offsets = grid.neighbourOffsets();
+        this.connecting = movement.allowsDiagonal() && movement.allowsCornerCutting()
+                ? new int[]{0, 1, 2, 3, 4, 5, 6, 7}
+                : new int[]{0, 2, 4, 6};
+        this.label = new int[grid.size()];
+        this.stamp = new int[grid.size()];
+        this.owner = new int[grid.size()];
+        for (int y = 0; y < grid.getHeight(); y++) {
+            for (int x = 0; x < grid.getWidth(); x++) {
+                int cell = grid.index(x, y);
+                if (grid.isWalkable(cell) && label[cell] == NONE) {
+                    int id = allocateId();
+                    size[id] = relabel(cell, NONE, id);
+                }
+            }
+        }
+        grid.addListener(this);
+    }
+
+    /*
+    QUERIES
+     */
+
+    /**
+     * @param start Index of start cell
+     * @param goal  Index of goal cell
+     * @return True if both cells are walkable and in the same component
+     */
+    public boolean isReachable(int start, int goal) {
+        return label[start] != NONE && label[start] == label[goal];
+    }
+
+    /**
+     * @param cell Cell index
+     * @return Id of the component of the cell, 0 for blocked cells. Ids are reused after components merge.
+     */
+    public int getComponent(int cell) {
+        return label[cell];
+    }
+
+    /**
+     * @param cell Cell index
+     * @return Number of cells in the component of the cell, 0 for blocked cells
+     */
+    public int getComponentSize(int cell) {
+        return label[cell] == NONE ? 0 : size[label[cell]];
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Wrap a path finder so queries between different components return no path without searching.
+     * The components must use the movement model of the path finder.
+     *
+     * @param finder Path finder to answer reachable queries
+     * @return Path finder checking reachability first
+     */
+    public PathFinder guard(PathFinder finder) {
+        return (grid, start, goal, context) -> {
+            if (grid == this.grid && !isReachable(start, goal)) {
+                context.reset(grid.size());
+                return context.finish(PathResult.notFound(0));
+            }
+            return finder.solve(grid, start, goal, context);
+        };
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    /*
+    UPDATES
+     */
+
+    @Override
+    public void cellChanged(Grid grid, int cell, boolean walkable) {
+        if (walkable) {
+            cellOpened(cell);
+        } else {
+            cellBlocked(cell);
+        }
+    }
+
+    /**
+     * Join the cell and all components around it into the largest of them.
+     */
+    private void cellOpened(int cell) {
+        int largest = NONE;
+        for (int d : connecting) {
+            int id = label[cell + offsets[d]];
+            if (id != NONE && (largest == NONE || size[id] > size[largest])) {
+                largest = id;
+            }
+        }
+        if (largest == NONE) {
+            largest = allocateId();
+        }
+        label[cell] = largest;
+        size[largest]++;
+        for (int d : connecting) {
+            int neighbour = cell + offsets[d];
+            int id = label[neighbour];
+            if (id != NONE && id != largest) {
+                size[largest] += relabel(neighbour, id, largest);
+                releaseId(id);
+            }
+        }
+    }
+
+    /**
+     * Remove the cell from its component and give new ids to pieces that are no longer connected.
+     */
+    private void cellBlocked(int cell) {
+        int id = label[cell];
+        if (id == NONE) {
+            return;
+        }
+        label[cell] = NONE;
+        if (--size[id] == 0) {
+            releaseId(id);
+            return;
+        }
+        int[] starts = separatedNeighbours(cell);
+        if (starts.length > 1) {
+            split(id, starts);
+        }
+    }
+
+    /**
+     * Group the connected neighbours of a cell by whether they are connected to each other right around it.
+     *
+     * @return One neighbour of every group
+     */
+    private int[] separatedNeighbours(int cell) {
+        // Union-find over the 8 cells around the cell, joined through steps that do not pass the cell itself
+        int[] group = {0, 1, 2, 3, 4, 5, 6, 7};
+        boolean[] open = new boolean[8];
+        for (int d = 0; d < 8; d++) {
+            open[d] = grid.isWalkable(cell + offsets[d]);
+        }
+        boolean diagonal = connecting.length == 8;
+        for (int d = 0; d < 8; d++) {
+            // Consecutive cells around the cell always share an edge
+            if (open[d] && open[(d + 1) & 7]) {
+                union(group, d, (d + 1) & 7);
+            }
+            // Straight neighbours two apart touch at a corner
+            if (diagonal && (d & 1) == 0 && open[d] && open[(d + 2) & 7]) {
+                union(group, d, (d + 2) & 7);
+            }
+        }
+        int[] starts = new int[4];
+        int count = 0;
+        boolean[] seen = new boolean[8];
+        for (int d : connecting) {
+            int root = find(group, d);
+            if (open[d] && !seen[root]) {
+                seen[root] = true;
+                starts[count++] = cell + offsets[d];
+            }
+        }
+        return Arrays.copyOf(starts, Math.min(count, starts.length));
+    }
+
+    private static int find(int[] group, int i) {
+        while (group[i] != i) {
+            i = group[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] group, int a, int b) {
+        group[find(group, a)] = find(group, b);
+    }
+
+    /**
+     * Search from each start cell in lockstep. Searches that meet are joined, and a search that runs out of cells
+     * before meeting all others has found a piece of the component that is now cut off.
+     * The last remaining piece keeps the old id.
+     */
+    private void split(int id, int[] starts) {
+        int k = starts.length;
+        nextGeneration();
+        int[] joined = new int[k];
+        int[] head = new int[k];
+        int[] tail = new int[k];
+        boolean[] finished = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            joined[i] = i;
+            if (queues.length <= i) {
+                queues = Arrays.copyOf(queues, k);
+            }
+            if (queues[i] == null) {
+                queues[i] = new int[16];
+            }
+            stamp[starts[i]] = generation;
+            owner[starts[i]] = i;
+            queues[i][tail[i]++] = starts[i];
+        }
+        int remaining = k;
+        while (remaining > 1) {
+            for (int i = 0; i < k && remaining > 1; i++) {
+                int root = find(joined, i);
+                if (finished[root]) {
+                    continue;
+                }
+                if (head[i] == tail[i]) {
+                    // Finished once every search joined with this one is out of cells
+                    boolean exhausted = true;
+                    for (int j = 0; j < k; j++) {
+                        if (find(joined, j) == root && head[j] != tail[j]) {
+                            exhausted = false;
+                        }
+                    }
+                    if (exhausted) {
+                        int piece = allocateId();
+                        for (int j = 0; j < k; j++) {
+                            if (find(joined, j) == root) {
+                                for (int q = 0; q < tail[j]; q++) {
+                                    label[queues[j][q]] = piece;
+                                }
+                                size[piece] += tail[j];
+                            }
+                        }
+                        size[id] -= size[piece];
+                        finished[root] = true;
+                        remaining--;
+                    }
+                    continue;
+                }
+                int current = queues[i][head[i]++];
+                for (int d : connecting) {
+                    int next = current + offsets[d];
+                    if (label[next] != id) {
+                        continue;
+                    }
+                    if (stamp[next] != generation) {
+                        stamp[next] = generation;
+                        owner[next] = i;
+                        if (tail[i] == queues[i].length) {
+                            queues[i] = Arrays.copyOf(queues[i], tail[i] * 2);
+                        }
+                        queues[i][tail[i]++] = next;
+                    } else if (find(joined, owner[next]) != find(joined, i)) {
+                        union(joined, owner[next], i);
+                        remaining--;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Give every cell connected to a start cell and labelled with the old id the new id.
+     *
+     * @return Number of relabelled cells
+     */
+    private int relabel(int start, int oldId, int newId) {
+        int[] queue = queues[0];
+        int tail = 0;
+        label[start] = newId;
+        queue[tail++] = start;
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int d : connecting) {
+                int next = current + offsets[d];
+                if (label[next] == oldId && grid.isWalkable(next)) {
+                    label[next] = newId;
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, tail * 2);
+                        queues[0] = queue;
+                    }
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return tail;
+    }
+
+    private void nextGeneration() {
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private int allocateId() {
+        int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+        if (id >= size.length) {
+            size = Arrays.copyOf(size, size.length * 2);
+        }
+        size[id] = 0;
+        componentCount++;
+        return id;
+    }
+
+    private void releaseId(int id) {
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+        componentCount--;
+    }
+}
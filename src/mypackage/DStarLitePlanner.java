@@ -0,0 +1,250 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+
+/**
+ * Incremental planner (D* Lite) for one goal on a grid whose obstacles change over time.
+ * The planner searches backwards from the goal and keeps its search tree between plans. After cells change
+ * or the start moves, only the part of the tree affected by the change is repaired, instead of searching
+ * again from scratch.
+ * <p>
+ * A planner is not thread safe. Changes to the grid must be reported through {@link #setWalkable} or
+ * {@link #cellChanged} before the next {@link #plan()}.
+ */
+public class DStarLitePlanner {
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+    private final Grid grid;
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final int goal;
+    private final int[] g;
+    private final int[] rhs;
+    private final IndexedHeap open = new IndexedHeap();
+    private int start;
+    private int lastStart;
+    private int km;
+    private int expanded;
+
+    /**
+     * Create planner for 8-connected movement using the octile heuristic.
+     *
+     * @param grid  Grid to plan on, only changed through this planner while it is used
+     * @param start Index of start cell
+     * @param goal  Index of goal cell
+     */
+    public DStarLitePlanner(Grid grid, int start, int goal) {
+        this(grid, MovementModel.EIGHT_CONNECTED, start, goal);
+    }
+
+    /**
+     * @param grid     Grid to plan on, only changed through this planner while it is used
+     * @param movement Allowed moves, the default heuristic of the model is used
+     * @param start    Index of start cell
+     * @param goal     Index of goal cell
+     */
+    public DStarLitePlanner(Grid grid, MovementModel movement, int start, int goal) {
+        this.grid = grid;
+        this.movement = movement;
+        this.heuristic = movement.getDefaultHeuristic();
+        this.goal = goal;
+        this.start = start;
+        this.lastStart = start;
+        this.g = new int[grid.size()];
+        this.rhs = new int[grid.size()];
+        Arrays.fill(g, INFINITY);
+        Arrays.fill(rhs, INFINITY);
+        open.ensureCapacity(grid.size());
+        rhs[goal] = 0;
+        open.insertOrUpdate(goal, key(goal));
+    }
+
+    /**
+     * Compute the shortest path from the current start to the goal, repairing the search tree after changes.
+     *
+     * @return Path from start to goal, or an empty result if there is none.
+     * The expanded count covers only the work done by this call.
+     */
+    public PathResult plan() {
+        expanded = 0;
+        computeShortestPath();
+        if (g[start] >= INFINITY || !grid.isWalkable(start)) {
+            return PathResult.notFound(expanded);
+        }
+        return tracePath();
+    }
+
+    /**
+     * Move the start, for example after the agent took a step along the path.
+     *
+     * @param start Index of new start cell
+     */
+    public void setStart(int start) {
+        // Keys already in the queue were computed against the old start, raise new keys by the distance moved
+        km += estimate(lastStart, start);
+        lastStart = start;
+        this.start = start;
+    }
+
+    /**
+     * Change a cell of the grid and mark the search tree around it for repair.
+     *
+     * @param x        X position
+     * @param y        Y position
+     * @param walkable New state of cell
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (grid.isWalkable(x, y) == walkable) {
+            return;
+        }
+        grid.setWalkable(x, y, walkable);
+        cellChanged(grid.index(x, y));
+    }
+
+    /**
+     * Report a cell of the grid that was changed by other code.
+     * Every edge touching the cell, including diagonal edges passing beside it, connects two cells in its
+     * neighbourhood, so updating the cell and its neighbours repairs all of them.
+     *
+     * @param cell Index of changed cell
+     */
+    public void cellChanged(int cell) {
+        int[] offsets = grid.neighbourOffsets();
+        updateVertex(cell);
+        for (int offset : offsets) {
+            int neighbour = cell + offset;
+            int x = grid.x(neighbour);
+            int y = grid.y(neighbour);
+            if (grid.inBounds(x, y)) {
+                updateVertex(neighbour);
+            }
+        }
+    }
+
+    private void computeShortestPath() {
+        while (!open.isEmpty() && (open.peekLongKey() < key(start) || rhs[start] != g[start])) {
+            int u = open.peek();
+            long oldKey = open.peekLongKey();
+            long newKey = key(u);
+            if (oldKey < newKey) {
+                open.insertOrUpdate(u, newKey);
+                continue;
+            }
+            open.pop();
+            expanded++;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                updateNeighbours(u);
+            } else {
+                g[u] = INFINITY;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+    }
+
+    private void updateNeighbours(int cell) {
+        int[] offsets = grid.neighbourOffsets();
+        for (OrdinalDirection dir : movement.directions()) {
+            int neighbour = cell + offsets[dir.ordinal()];
+            if (grid.isWalkable(neighbour)) {
+                updateVertex(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Recompute the best cost to the goal through any neighbour and requeue the cell if it is inconsistent.
+     */
+    private void updateVertex(int cell) {
+        if (cell != goal) {
+            rhs[cell] = bestSuccessorCost(cell);
+        }
+        if (g[cell] != rhs[cell]) {
+            open.insertOrUpdate(cell, key(cell));
+        } else {
+            open.remove(cell);
+        }
+    }
+
+    /**
+     * @return Lowest step cost plus G cost over all neighbours of a cell, INFINITY if the cell is blocked
+     */
+    private int bestSuccessorCost(int cell) {
+        if (!grid.isWalkable(cell)) {
+            return INFINITY;
+        }
+        int[] offsets = grid.neighbourOffsets();
+        int best = INFINITY;
+        for (OrdinalDirection dir : movement.directions()) {
+            int neighbour = cell + offsets[dir.ordinal()];
+            if (!grid.isWalkable(neighbour) || g[neighbour] >= INFINITY || !movement.canStep(grid, cell, dir)) {
+                continue;
+            }
+            best = Math.min(best, g[neighbour] + dir.cost);
+        }
+        return best;
+    }
+
+    /**
+     * Priority of a cell, comparing the estimated total cost first and the cost to the goal second.
+     */
+    private long key(int cell) {
+        int m = Math.min(g[cell], rhs[cell]);
+        long primary = m >= INFINITY ? INFINITY : (long) m + estimate(start, cell) + km;
+        return primary << 31 | m;
+    }
+
+    private int estimate(int from, int to) {
+        return heuristic.estimate(grid.x(from), grid.y(from), grid.x(to), grid.y(to));
+    }
+
+    /**
+     * Follow the cheapest neighbour from start down to the goal.
+     */
+    private PathResult tracePath() {
+        int[] offsets = grid.neighbourOffsets();
+        int[] cells = new int[16];
+        int length = 0;
+        int cell = start;
+        cells[length++] = cell;
+        while (cell != goal) {
+            int next = -1;
+            int best = INFINITY;
+            for (OrdinalDirection dir : movement.directions()) {
+                int neighbour = cell + offsets[dir.ordinal()];
+                if (!grid.isWalkable(neighbour) || g[neighbour] >= INFINITY || !movement.canStep(grid, cell, dir)) {
+                    continue;
+                }
+                int cost = g[neighbour] + dir.cost;
+                if (cost < best) {
+                    best = cost;
+                    next = neighbour;
+                }
+            }
+            if (next == -1 || length > grid.size()) {
+                return PathResult.notFound(expanded);
+            }
+            if (length == cells.length) {
+                cells = Arrays.copyOf(cells, length * 2);
+            }
+            cells[length++] = next;
+            cell = next;
+        }
+        return new PathResult(Arrays.copyOf(cells, length), grid, g[start], expanded);
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+}
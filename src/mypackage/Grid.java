@@ -0,0 +1,285 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Compact grid map. Walkability is stored as one bit per cell and cells are addressed by int index.
+ * The grid is surrounded by a border of blocked cells, so neighbours can be found by adding a fixed offset
+ * to a cell index without any bounds checks.
+ */
+public class Grid {
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final long[] walkable;
+    private final int[] neighbourOffsets;
+    private volatile long version;
+    private volatile GridListener[] listeners = new GridListener[0];
+
+    public Grid(int width, int height) {
+        this(width, height, null);
+        // All cells inside the border start out walkable
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int index = index(x, y);
+                walkable[index >>> 6] |= 1L << index;
+            }
+        }
+    }
+
+    /**
+     * Create a grid on existing walkability words, laid out like {@link #words()}.
+     * Bits of the border are cleared, so words read from a file cannot open the border.
+     *
+     * @param width    Number of columns
+     * @param height   Number of rows
+     * @param walkable Walkability bits including the border, or null to start with all cells blocked
+     */
+    Grid(int width, int height, long[] walkable) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + width + "x" + height);
+        }
+        if ((long) (width + 2) * (height + 2) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large for int cell indices: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2;
+        int words = wordCount(width, height);
+        if (walkable != null && walkable.length != words) {
+            throw new IllegalArgumentException("Expected " + words + " walkability words, got " + walkable.length);
+        }
+        this.walkable = walkable != null ? walkable : new long[words];
+        // Same order as AStarSolver.OrdinalDirection
+        this.neighbourOffsets = new int[]{
+                -stride, -stride - 1,
+                -1, stride - 1,
+                stride, stride + 1,
+                1, -stride + 1
+        };
+        if (walkable != null) {
+            for (int x = 0; x < stride; x++) {
+                clearBit(x);
+                clearBit((height + 1) * stride + x);
+            }
+            for (int y = 1; y <= height; y++) {
+                clearBit(y * stride);
+                clearBit(y * stride + stride - 1);
+            }
+        }
+    }
+
+    private void clearBit(int index) {
+        walkable[index >>> 6] &= ~(1L << index);
+    }
+
+    /**
+     * Number of long words holding the walkability bits of a grid, including its border.
+     *
+     * @param width  Number of columns
+     * @param height Number of rows
+     * @return Length of {@link #words()}
+     */
+    static int wordCount(int width, int height) {
+        return (int) (((long) (width + 2) * (height + 2) + 63) >>> 6);
+    }
+
+    /**
+     * Create a grid from a matrix of cells. Only blocked cells are copied, search state of the cells is ignored.
+     *
+     * @param cellMap Matrix of cells, indexed as [y][x]
+     * @return Grid with the same dimensions and obstacles as the cell matrix
+     */
+    public static Grid fromCells(AStarCell[][] cellMap) {
+        Grid grid = new Grid(cellMap[0].length, cellMap.length);
+        for (int y = 0; y < grid.height; y++) {
+            for (int x = 0; x < grid.width; x++) {
+                if (cellMap[y][x].getState() == AStarCell.CellState.BLOCK) {
+                    grid.setWalkable(x, y, false);
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Create a matrix of cell objects from this grid, for code that still works on AStarCell.
+     * The matrix is a copy, changes to it are not reflected in the grid.
+     *
+     * @return Matrix of cells, indexed as [y][x]
+     */
+    public AStarCell[][] toCells() {
+        AStarCell[][] cellMap = new AStarCell[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                AStarCell cell = new AStarCell(x, y);
+                if (!isWalkable(x, y)) {
+                    cell.setState(AStarCell.CellState.BLOCK);
+                }
+                cellMap[y][x] = cell;
+            }
+        }
+        return cellMap;
+    }
+
+    /**
+     * Convert a position to the index of its cell.
+     *
+     * @param x X position
+     * @param y Y position
+     * @return Cell index
+     */
+    public int index(int x, int y) {
+        return (y + 1) * stride + x + 1;
+    }
+
+    public int x(int index) {
+        return index % stride - 1;
+    }
+
+    public int y(int index) {
+        return index / stride - 1;
+    }
+
+    /**
+     * Check if given position lies on the grid.
+     *
+     * @param x X position
+     * @param y Y position
+     * @return True if position is within bounds
+     */
+    public boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    /**
+     * Check if given position is in bounds and not blocked.
+     *
+     * @param x X position
+     * @param y Y position
+     * @return True if cell can be walked on
+     */
+    public boolean isWalkable(int x, int y) {
+        return inBounds(x, y) && isWalkable(index(x, y));
+    }
+
+    /**
+     * Check if cell at given index is walkable. Indices of the border around the grid are never walkable.
+     *
+     * @param index Cell index, may be a neighbour of any in-bounds cell
+     * @return True if cell can be walked on
+     */
+    public boolean isWalkable(int index) {
+        return (walkable[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Set or unset an obstacle. The grid must not be modified while searches are running on it.
+     * If the state of the cell changes, the version is increased and listeners are notified.
+     *
+     * @param x        X position
+     * @param y        Y position
+     * @param walkable New state of cell
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (!inBounds(x, y)) {
+            throw new IndexOutOfBoundsException("Position out of bounds: " + x + "," + y);
+        }
+        int index = index(x, y);
+        if (isWalkable(index) == walkable) {
+            return;
+        }
+        if (walkable) {
+            this.walkable[index >>> 6] |= 1L << index;
+        } else {
+            this.walkable[index >>> 6] &= ~(1L << index);
+        }
+        version++;
+        for (GridListener listener : listeners) {
+            listener.cellChanged(this, index, walkable);
+        }
+    }
+
+    /**
+     * Number of cell changes since the grid was created. Anything derived from the grid, such as cached paths,
+     * is still valid if the version did not change.
+     *
+     * @return Version of the grid
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Add listener notified of every changed cell, on the thread changing the grid.
+     *
+     * @param listener Listener to add
+     */
+    public synchronized void addListener(GridListener listener) {
+        GridListener[] updated = Arrays.copyOf(listeners, listeners.length + 1);
+        updated[listeners.length] = listener;
+        listeners = updated;
+    }
+
+    public synchronized void removeListener(GridListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GridListener[] updated = new GridListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, updated, 0, i);
+                System.arraycopy(listeners, i + 1, updated, i, updated.length - i);
+                listeners = updated;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Index offsets to the 8 neighbours of a cell, in the order of {@link AStarSolver.OrdinalDirection}.
+     * Shared with the caller and must not be modified.
+     *
+     * @return Neighbour offsets
+     */
+    int[] neighbourOffsets() {
+        return neighbourOffsets;
+    }
+
+    /**
+     * Walkability bits, one per cell index, with bit (index % 64) of word (index / 64) set for walkable cells.
+     * Shared with the caller and must not be modified.
+     *
+     * @return Walkability words
+     */
+    long[] words() {
+        return walkable;
+    }
+
+    /*
+    GETTERS
+     */
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Distance between the indices of two vertically adjacent cells.
+     *
+     * @return Row stride, including the border
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    /**
+     * Number of cell indices, including the border. Arrays indexed by cell must be at least this large.
+     *
+     * @return Index capacity of the grid
+     */
+    public int size() {
+        return stride * (height + 2);
+    }
+}
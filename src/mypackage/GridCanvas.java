@@ -0,0 +1,247 @@
+package mypackage;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Component painting a grid of colored cells from a single image holding one pixel per cell.
+ * Cell lookup from mouse positions is plain arithmetic, changed cells are collected into one dirty
+ * rectangle that is repainted on {@link #flush()}, and the view can be zoomed with the mouse wheel and
+ * panned by dragging with the right or middle mouse button.
+ */
+public class GridCanvas extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    private static final double MAX_SCALE = 64.0;
+
+    private final int columns;
+    private final int rows;
+    private final BufferedImage image;
+    private final int[] pixels;
+    private double scale;
+    private double offsetX;
+    private double offsetY;
+    private boolean fitted;
+    // Bounding box of cells changed since last flush, in cell coordinates
+    private int dirtyMinX = Integer.MAX_VALUE;
+    private int dirtyMinY = Integer.MAX_VALUE;
+    private int dirtyMaxX = -1;
+    private int dirtyMaxY = -1;
+
+    /**
+     * @param columns    Number of cells horizontally
+     * @param rows       Number of cells vertically
+     * @param background Initial color of all cells
+     */
+    public GridCanvas(int columns, int rows, Color background) {
+        this.columns = columns;
+        this.rows = rows;
+        this.image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        clear(background);
+        setOpaque(true);
+        addNavigationListeners();
+    }
+
+    /**
+     * Set color of a single cell. The change becomes visible on the next {@link #flush()}.
+     *
+     * @param x     X position of cell
+     * @param y     Y position of cell
+     * @param color New color
+     */
+    public void setCellColor(int x, int y, Color color) {
+        pixels[y * columns + x] = color.getRGB() & 0xFFFFFF;
+        dirtyMinX = Math.min(dirtyMinX, x);
+        dirtyMinY = Math.min(dirtyMinY, y);
+        dirtyMaxX = Math.max(dirtyMaxX, x);
+        dirtyMaxY = Math.max(dirtyMaxY, y);
+    }
+
+    public Color getCellColor(int x, int y) {
+        return new Color(pixels[y * columns + x]);
+    }
+
+    /**
+     * Set all cells to one color and repaint.
+     *
+     * @param color New color
+     */
+    public void clear(Color color) {
+        Arrays.fill(pixels, color.getRGB() & 0xFFFFFF);
+        dirtyMinX = 0;
+        dirtyMinY = 0;
+        dirtyMaxX = columns - 1;
+        dirtyMaxY = rows - 1;
+        flush();
+    }
+
+    /**
+     * Repaint the area covering all cells changed since the last flush.
+     */
+    public void flush() {
+        if (dirtyMaxX < 0) {
+            return;
+        }
+        int x0 = (int) Math.floor(offsetX + dirtyMinX * scale);
+        int y0 = (int) Math.floor(offsetY + dirtyMinY * scale);
+        int x1 = (int) Math.ceil(offsetX + (dirtyMaxX + 1) * scale);
+        int y1 = (int) Math.ceil(offsetY + (dirtyMaxY + 1) * scale);
+        repaint(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
+        dirtyMinX = Integer.MAX_VALUE;
+        dirtyMinY = Integer.MAX_VALUE;
+        dirtyMaxX = -1;
+        dirtyMaxY = -1;
+    }
+
+    /**
+     * Find cell under a position on the component.
+     *
+     * @param px X position in pixels
+     * @param py Y position in pixels
+     * @return Position of cell, or null if there is no cell at the position
+     */
+    public Point cellAt(int px, int py) {
+        int x = (int) Math.floor((px - offsetX) / scale);
+        int y = (int) Math.floor((py - offsetY) / scale);
+        if (x < 0 || x >= columns || y < 0 || y >= rows) {
+            return null;
+        }
+        return new Point(x, y);
+    }
+
+    /**
+     * Zoom in or out, keeping the given position on the component fixed.
+     *
+     * @param factor Zoom factor, above 1 zooms in
+     * @param px     X position in pixels
+     * @param py     Y position in pixels
+     */
+    public void zoom(double factor, int px, int py) {
+        double minScale = Math.min(fitScale(), 1.0);
+        double newScale = Math.max(minScale, Math.min(MAX_SCALE, scale * factor));
+        offsetX = px - (px - offsetX) * newScale / scale;
+        offsetY = py - (py - offsetY) * newScale / scale;
+        scale = newScale;
+        repaint();
+    }
+
+    /**
+     * Move the view by a number of pixels.
+     */
+    public void pan(double dx, double dy) {
+        offsetX += dx;
+        offsetY += dy;
+        repaint();
+    }
+
+    /**
+     * Scale and center the view so the whole grid is visible.
+     */
+    public void fit() {
+        scale = fitScale();
+        offsetX = (getWidth() - columns * scale) / 2.0;
+        offsetY = (getHeight() - rows * scale) / 2.0;
+        repaint();
+    }
+
+    private double fitScale() {
+        if (getWidth() == 0 || getHeight() == 0) {
+            return 1.0;
+        }
+        return Math.min((double) getWidth() / columns, (double) getHeight() / rows);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (!fitted && getWidth() > 0) {
+            fitted = true;
+            fit();
+        }
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setColor(getBackground());
+        g2.fillRect(0, 0, getWidth(), getHeight());
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+
+        // Only draw the cells intersecting the clip, scaled up from the backing image
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        int cx0 = Math.max(0, (int) Math.floor((clip.x - offsetX) / scale));
+        int cy0 = Math.max(0, (int) Math.floor((clip.y - offsetY) / scale));
+        int cx1 = Math.min(columns, (int) Math.ceil((clip.x + clip.width - offsetX) / scale));
+        int cy1 = Math.min(rows, (int) Math.ceil((clip.y + clip.height - offsetY) / scale));
+        if (cx0 < cx1 && cy0 < cy1) {
+            int dx0 = (int) Math.round(offsetX + cx0 * scale);
+            int dy0 = (int) Math.round(offsetY + cy0 * scale);
+            int dx1 = (int) Math.round(offsetX + cx1 * scale);
+            int dy1 = (int) Math.round(offsetY + cy1 * scale);
+            g2.drawImage(image, dx0, dy0, dx1, dy1, cx0, cy0, cx1, cy1, null);
+            // Grid lines when cells are large enough to see them
+            if (scale >= 6) {
+                g2.setColor(Color.black);
+                for (int x = cx0; x <= cx1; x++) {
+                    int lx = (int) Math.round(offsetX + x * scale);
+                    g2.drawLine(lx, dy0, lx, dy1);
+                }
+                for (int y = cy0; y <= cy1; y++) {
+                    int ly = (int) Math.round(offsetY + y * scale);
+                    g2.drawLine(dx0, ly, dx1, ly);
+                }
+            }
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Zoom with the mouse wheel, pan by dragging with the right or middle mouse button.
+     */
+    private void addNavigationListeners() {
+        MouseAdapter navigation = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (!SwingUtilities.isLeftMouseButton(e)) {
+                    last = e.getPoint();
+                }
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                last = null;
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (last != null) {
+                    pan(e.getX() - last.x, e.getY() - last.y);
+                    last = e.getPoint();
+                }
+            }
+
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                zoom(Math.pow(1.2, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+            }
+        };
+        addMouseListener(navigation);
+        addMouseMotionListener(navigation);
+        addMouseWheelListener(navigation);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+}
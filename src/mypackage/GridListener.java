@@ -0,0 +1,15 @@
+package mypackage;
+
+/**
+ * Listener notified when a cell of a {@link Grid} changes between walkable and blocked.
+ */
+public interface GridListener {
+    /**
+     * Called after the cell changed and the version of the grid was increased.
+     *
+     * @param grid     Grid that changed
+     * @param cell     Index of changed cell
+     * @param walkable New state of cell
+     */
+    void cellChanged(Grid grid, int cell, boolean walkable);
+}
@@ -0,0 +1,28 @@
+package mypackage;
+
+/**
+ * Estimate of the remaining path cost from a cell to the goal, in the same units as the step costs
+ * (10 for a straight step, 14 for a diagonal step).
+ * A heuristic that never overestimates the true cost (admissible) gives optimal paths.
+ */
+public interface Heuristic {
+    /**
+     * @param x     X position of cell
+     * @param y     Y position of cell
+     * @param goalX X position of goal
+     * @param goalY Y position of goal
+     * @return Estimated cost from cell to goal, never negative
+     */
+    int estimate(int x, int y, int goalX, int goalY);
+
+    /**
+     * Weighted A*: inflate this heuristic by a factor epsilon. Paths found are at most epsilon times as
+     * expensive as the optimal path, but far fewer cells are expanded.
+     *
+     * @param epsilon Weight, at least 1
+     * @return Weighted heuristic
+     */
+    default Heuristic weighted(double epsilon) {
+        return new WeightedHeuristic(this, epsilon);
+    }
+}
@@ -0,0 +1,699 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Hierarchical path finder (HPA*) for very large grids.
+ * The grid is split into square clusters. Entrances are placed along every open stretch of the border between
+ * two clusters, and the distances between all entrances of a cluster are precomputed. A query searches this
+ * small abstract graph of entrances and then refines the abstract path into cells, one cluster at a time.
+ * <p>
+ * Paths are near-optimal: they only cross cluster borders at entrances. Entrances are straight steps across the
+ * border, and with diagonal movement also the diagonal steps, including those across cluster corners, that no
+ * straight step can replace.
+ * When cells change, only the clusters around them are rebuilt. Rebuilding must not run concurrently with
+ * queries, but any number of threads can query at the same time.
+ */
+public class HierarchicalPathFinder implements PathFinder {
+    private static final int INFINITY = Integer.MAX_VALUE / 2;
+    // Open stretches longer than this get an entrance at both ends instead of one in the middle
+    private static final int MAX_SINGLE_ENTRANCE = 5;
+
+    private final Grid grid;
+    private final MovementModel movement;
+    private final Heuristic heuristic;
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    private final Cluster[] clusters;
+    // Entrance cell pairs on the border to the right of and below each cluster
+    private final int[][] rightBorders;
+    private final int[][] bottomBorders;
+    // Abstract node numbering, rebuilt after clusters change: node id = nodeBase[cluster] + local index
+    private int[] nodeBase;
+    private int nodeCount;
+    private final ThreadLocal<LocalSearch> localSearches;
+
+    /**
+     * Build abstract graph for 8-connected movement with clusters of 32 by 32 cells.
+     *
+     * @param grid Grid to search on
+     */
+    public HierarchicalPathFinder(Grid grid) {
+        this(grid, MovementModel.EIGHT_CONNECTED, 32);
+    }
+
+    /**
+     * Build abstract graph. Clusters are built in parallel on the common pool.
+     *
+     * @param grid        Grid to search on
+     * @param movement    Allowed moves
+     * @param clusterSize Width and height of clusters in cells
+     */
+    public HierarchicalPathFinder(Grid grid, MovementModel movement, int clusterSize) {
+        if (clusterSize < 2) {
+            throw new IllegalArgumentException("Cluster size must be at least 2: " + clusterSize);
+        }
+        this.grid = grid;
+        this.movement = movement;
+        this.heuristic = movement.getDefaultHeuristic();
+        this.clusterSize = clusterSize;
+        this.clustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        this.clustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clustersX * clustersY];
+        this.rightBorders = new int[clusters.length][];
+        this.bottomBorders = new int[clusters.length][];
+        this.localSearches = ThreadLocal.withInitial(LocalSearch::new);
+
+        IntStream.range(0, clusters.length).parallel().forEach(c -> {
+            rightBorders[c] = findEntrances(c, true);
+            bottomBorders[c] = findEntrances(c, false);
+        });
+        IntStream.range(0, clusters.length).parallel().forEach(c -> clusters[c] = buildCluster(c));
+        renumber();
+    }
+
+    /*
+    PRECOMPUTATION
+     */
+
+    /**
+     * Find entrances on the border between a cluster and its right or bottom neighbour.
+     * With diagonal movement, a diagonal step across the border is an entrance too if neither of its cells can
+     * cross with a straight step. Diagonal steps across the corners of the cluster belong to its right border,
+     * so their outside cell lies in the cluster above or below the right neighbour.
+     *
+     * @param cluster Cluster index
+     * @param right   True for the border to the right, false for the border below
+     * @return Pairs of cells (inside, outside) that form entrances, empty if there is no neighbour
+     */
+    private int[] findEntrances(int cluster, boolean right) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        if (right ? cx + 1 >= clustersX : cy + 1 >= clustersY) {
+            return new int[0];
+        }
+        int x0 = cx * clusterSize;
+        int y0 = cy * clusterSize;
+        int length = right ? Math.min(clusterSize, grid.getHeight() - y0) : Math.min(clusterSize, grid.getWidth() - x0);
+        boolean[] open = new boolean[length];
+        for (int i = 0; i < length; i++) {
+            open[i] = grid.isWalkable(borderCell(x0, y0, i, right, 0))
+                    && grid.isWalkable(borderCell(x0, y0, i, right, 1));
+        }
+        int[] pairs = new int[0];
+        int count = 0;
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && open[i] && runStart < 0) {
+                runStart = i;
+            } else if ((i == length || !open[i]) && runStart >= 0) {
+                // Stretch from runStart to i - 1 is open on both sides
+                int[] positions = i - runStart > MAX_SINGLE_ENTRANCE
+                        ? new int[]{runStart, i - 1}
+                        : new int[]{(runStart + i - 1) / 2};
+                for (int p : positions) {
+                    if (count + 2 > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, Math.max(8, pairs.length * 2));
+                    }
+                    pairs[count++] = borderCell(x0, y0, p, right, 0);
+                    pairs[count++] = borderCell(x0, y0, p, right, 1);
+                }
+                runStart = -1;
+            }
+        }
+        if (!movement.allowsDiagonal()) {
+            return Arrays.copyOf(pairs, count);
+        }
+        for (int i = 0; i < length; i++) {
+            int inside = borderCell(x0, y0, i, right, 0);
+            if (!grid.isWalkable(inside)) {
+                continue;
+            }
+            for (int side = -1; side <= 1; side += 2) {
+                int j = i + side;
+                if (j < 0 || j >= length) {
+                    // Across a corner, only from the right border and only to a cell of the grid
+                    int y = y0 + j;
+                    if (!right || y < 0 || y >= grid.getHeight()) {
+                        continue;
+                    }
+                } else if (open[i] || open[j]) {
+                    // A straight step across the border and a step along it reach the same cell
+                    continue;
+                }
+                int outside = borderCell(x0, y0, j, right, 1);
+                OrdinalDirection dir = right
+                        ? side < 0 ? OrdinalDirection.NORTHEAST : OrdinalDirection.SOUTHEAST
+                        : side < 0 ? OrdinalDirection.SOUTHWEST : OrdinalDirection.SOUTHEAST;
+                if (grid.isWalkable(outside) && movement.canStep(grid, inside, dir)) {
+                    if (count + 2 > pairs.length) {
+                        pairs = Arrays.copyOf(pairs, Math.max(8, pairs.length * 2));
+                    }
+                    pairs[count++] = inside;
+                    pairs[count++] = outside;
+                }
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    /**
+     * @param x0       X position of the cluster
+     * @param y0       Y position of the cluster
+     * @param position Position along the border, may lie one cell beyond it
+     * @param right    True for the border to the right, false for the border below
+     * @param side     0 for the cell inside the cluster, 1 for the cell across the border
+     * @return Cell index
+     */
+    private int borderCell(int x0, int y0, int position, boolean right, int side) {
+        return right
+                ? grid.index(x0 + clusterSize - 1 + side, y0 + position)
+                : grid.index(x0 + position, y0 + clusterSize - 1 + side);
+    }
+
+    /**
+     * @return Cost of the step between an entrance and its partner across the border
+     */
+    private int crossingCost(int cell, int partner) {
+        return grid.x(cell) != grid.x(partner) && grid.y(cell) != grid.y(partner) ? 14 : 10;
+    }
+
+    /**
+     * Collect the entrance cells of a cluster from the borders around it and compute distances between them.
+     *
+     * @param cluster Cluster index
+     * @return Cluster with nodes, partners and distance table
+     */
+    private Cluster buildCluster(int cluster) {
+        int cx = cluster % clustersX;
+        int cy = cluster / clustersX;
+        NodeCollector collector = new NodeCollector(cluster);
+        collector.addPairs(rightBorders[cluster]);
+        collector.addPairs(bottomBorders[cluster]);
+        if (cy > 0) {
+            collector.addPairs(bottomBorders[cluster - clustersX]);
+        }
+        // Right borders of the clusters to the left, which include the steps across their corners
+        if (cx > 0) {
+            for (int y = Math.max(0, cy - 1); y <= Math.min(clustersY - 1, cy + 1); y++) {
+                collector.addPairs(rightBorders[y * clustersX + cx - 1]);
+            }
+        }
+
+        int n = collector.count;
+        int[] nodes = Arrays.copyOf(collector.nodes, n);
+        int[][] partners = Arrays.copyOf(collector.partners, n);
+        int[] distances = new int[n * n];
+        LocalSearch search = localSearches.get();
+        for (int i = 0; i < n; i++) {
+            search.run(cluster, nodes[i], -1);
+            for (int j = 0; j < n; j++) {
+                distances[i * n + j] = search.distanceTo(nodes[j]);
+            }
+        }
+        return new Cluster(nodes, partners, distances);
+    }
+
+    /**
+     * Assign consecutive abstract node ids, cluster by cluster.
+     */
+    private void renumber() {
+        int[] base = new int[clusters.length + 1];
+        for (int c = 0; c < clusters.length; c++) {
+            base[c + 1] = base[c] + clusters[c].nodes.length;
+        }
+        nodeBase = base;
+        nodeCount = base[clusters.length];
+    }
+
+    /*
+    UPDATES
+     */
+
+    /**
+     * Change a cell of the grid and rebuild the clusters around it.
+     *
+     * @param x        X position
+     * @param y        Y position
+     * @param walkable New state of cell
+     */
+    public void setWalkable(int x, int y, boolean walkable) {
+        if (grid.isWalkable(x, y) != walkable) {
+            grid.setWalkable(x, y, walkable);
+            cellChanged(x, y);
+        }
+    }
+
+    /**
+     * Rebuild the cluster of a cell changed by other code, and every nearby cluster whose entrances
+     * changed as a result.
+     *
+     * @param x X position of changed cell
+     * @param y Y position of changed cell
+     */
+    public void cellChanged(int x, int y) {
+        int cx = x / clusterSize;
+        int cy = y / clusterSize;
+        int cluster = cy * clustersX + cx;
+        int[] rebuild = {cluster};
+        // Borders touching the cell, or the cells a diagonal step across a border has to pass by
+        for (int ny = Math.max(0, cy - 1); ny <= Math.min(clustersY - 1, cy + 1); ny++) {
+            for (int nx = Math.max(0, cx - 1); nx <= Math.min(clustersX - 1, cx + 1); nx++) {
+                int neighbour = ny * clustersX + nx;
+                int[] entrances = findEntrances(neighbour, true);
+                if (!Arrays.equals(entrances, rightBorders[neighbour])) {
+                    rebuild = addClusters(rebuild, rightBorders[neighbour]);
+                    rebuild = addClusters(rebuild, entrances);
+                    rightBorders[neighbour] = entrances;
+                }
+                entrances = findEntrances(neighbour, false);
+                if (!Arrays.equals(entrances, bottomBorders[neighbour])) {
+                    rebuild = addClusters(rebuild, bottomBorders[neighbour]);
+                    rebuild = addClusters(rebuild, entrances);
+                    bottomBorders[neighbour] = entrances;
+                }
+            }
+        }
+        boolean nodesChanged = false;
+        for (int c : rebuild) {
+            Cluster old = clusters[c];
+            clusters[c] = buildCluster(c);
+            nodesChanged |= old.nodes.length != clusters[c].nodes.length;
+        }
+        if (nodesChanged) {
+            renumber();
+        }
+    }
+
+    /**
+     * @return Clusters with the clusters of all cells of the entrance pairs added, without duplicates
+     */
+    private int[] addClusters(int[] list, int[] pairs) {
+        for (int cell : pairs) {
+            int cluster = clusterOf(cell);
+            if (indexOf(list, cluster) < 0) {
+                list = Arrays.copyOf(list, list.length + 1);
+                list[list.length - 1] = cluster;
+            }
+        }
+        return list;
+    }
+
+    /*
+    QUERIES
+     */
+
+    @Override
+    public PathResult solve(Grid grid, int start, int goal, SearchContext context) {
+        if (grid != this.grid) {
+            throw new IllegalArgumentException("Abstract graph was built for a different grid");
+        }
+        int[] waypoints = searchAbstract(start, goal, context);
+        if (waypoints == null) {
+            return context.finish(PathResult.notFound(context.getExpanded()));
+        }
+        int[] cells = new int[64];
+        int length = 0;
+        cells[length++] = start;
+        for (int i = 1; i < waypoints.length; i++) {
+            int[] segment = refineSegment(waypoints[i - 1], waypoints[i]);
+            if (length + segment.length > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, length + segment.length));
+            }
+            // Segments share their end points, skip the first cell of each
+            System.arraycopy(segment, 1, cells, length, segment.length - 1);
+            length += segment.length - 1;
+        }
+        int cost = context.getGCost(nodeCount + 1);
+        return context.finish(new PathResult(Arrays.copyOf(cells, length), grid, cost, context.getExpanded()));
+    }
+
+    /**
+     * Find the abstract path between two cells: start, the entrances passed and goal.
+     * Consecutive waypoints either lie in the same cluster or are neighbours across a cluster border,
+     * so each segment can be turned into cells with {@link #refineSegment} when it is needed.
+     *
+     * @param start   Index of start cell
+     * @param goal    Index of goal cell
+     * @param context Search state of the calling thread
+     * @return Cell indices of waypoints, empty if there is no path
+     */
+    public int[] findAbstractPath(int start, int goal, SearchContext context) {
+        int[] waypoints = searchAbstract(start, goal, context);
+        return waypoints != null ? waypoints : new int[0];
+    }
+
+    /**
+     * A* over the entrances, with start and goal inserted as temporary nodes connected to the entrances of
+     * their clusters. The context is indexed by abstract node id instead of cell index.
+     *
+     * @return Cell indices of waypoints, or null if there is no path
+     */
+    private int[] searchAbstract(int start, int goal, SearchContext context) {
+        int startId = nodeCount;
+        int goalId = nodeCount + 1;
+        context.reset(nodeCount + 2);
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return null;
+        }
+        int startCluster = clusterOf(start);
+        int goalCluster = clusterOf(goal);
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+
+        // Connect start and goal to the entrances of their clusters
+        LocalSearch search = localSearches.get();
+        Cluster sc = clusters[startCluster];
+        int[] startDistances = new int[sc.nodes.length];
+        search.run(startCluster, start, -1);
+        for (int i = 0; i < startDistances.length; i++) {
+            startDistances[i] = search.distanceTo(sc.nodes[i]);
+        }
+        int direct = startCluster == goalCluster ? search.distanceTo(goal) : INFINITY;
+        Cluster gc = clusters[goalCluster];
+        int[] goalDistances = new int[gc.nodes.length];
+        search.run(goalCluster, goal, -1);
+        for (int i = 0; i < goalDistances.length; i++) {
+            goalDistances[i] = search.distanceTo(gc.nodes[i]);
+        }
+
+        context.update(startId, 0, -1);
+        context.push(startId, estimate(start, goalX, goalY));
+        while (!context.isOpenEmpty()) {
+            int current = context.pop();
+            if (current == goalId) {
+                return waypoints(context, startId, goalId, start, goal);
+            }
+            context.close(current);
+            int g = context.getGCost(current);
+            int cluster;
+            int local;
+            if (current == startId) {
+                for (int i = 0; i < startDistances.length; i++) {
+                    relax(context, current, nodeBase[startCluster] + i, g + startDistances[i], sc.nodes[i], goalX, goalY);
+                }
+                relax(context, current, goalId, g + direct, goal, goalX, goalY);
+                // A start on an entrance can also cross the border right away
+                local = indexOf(sc.nodes, start);
+                if (local < 0) {
+                    continue;
+                }
+                cluster = startCluster;
+            } else {
+                cluster = clusterOfNode(current);
+                local = current - nodeBase[cluster];
+                Cluster c = clusters[cluster];
+                int n = c.nodes.length;
+                for (int j = 0; j < n; j++) {
+                    if (j != local) {
+                        relax(context, current, nodeBase[cluster] + j, g + c.distances[local * n + j], c.nodes[j], goalX, goalY);
+                    }
+                }
+                if (cluster == goalCluster) {
+                    relax(context, current, goalId, g + goalDistances[local], goal, goalX, goalY);
+                }
+            }
+            for (int partner : clusters[cluster].partners[local]) {
+                relax(context, current, nodeId(partner), g + crossingCost(clusters[cluster].nodes[local], partner),
+                        partner, goalX, goalY);
+            }
+        }
+        return null;
+    }
+
+    private void relax(SearchContext context, int from, int to, int cost, int toCell, int goalX, int goalY) {
+        if (cost >= INFINITY || context.isClosed(to)) {
+            return;
+        }
+        if (cost < context.getGCost(to)) {
+            context.update(to, cost, from);
+            context.push(to, cost + estimate(toCell, goalX, goalY));
+        }
+    }
+
+    /**
+     * Follow parents of the abstract search back from the goal.
+     */
+    private int[] waypoints(SearchContext context, int startId, int goalId, int start, int goal) {
+        int count = 0;
+        for (int id = goalId; id != -1; id = context.getParent(id)) {
+            count++;
+        }
+        int[] waypoints = new int[count];
+        for (int id = goalId; id != -1; id = context.getParent(id)) {
+            waypoints[--count] = id == startId ? start : id == goalId ? goal : nodeCell(id);
+        }
+        return waypoints;
+    }
+
+    /**
+     * Find the cells between two consecutive waypoints of an abstract path.
+     *
+     * @param from Waypoint cell index
+     * @param to   Next waypoint cell index
+     * @return Cells from first to second waypoint, both included
+     */
+    public int[] refineSegment(int from, int to) {
+        int cluster = clusterOf(from);
+        if (cluster != clusterOf(to)) {
+            // Neighbours across a cluster border
+            return new int[]{from, to};
+        }
+        LocalSearch search = localSearches.get();
+        search.run(cluster, from, to);
+        return search.pathTo(to);
+    }
+
+    private int estimate(int cell, int goalX, int goalY) {
+        return heuristic.estimate(grid.x(cell), grid.y(cell), goalX, goalY);
+    }
+
+    private int clusterOf(int cell) {
+        return grid.y(cell) / clusterSize * clustersX + grid.x(cell) / clusterSize;
+    }
+
+    private int clusterOfNode(int id) {
+        // Last cluster whose base is at most id
+        int index = Arrays.binarySearch(nodeBase, id);
+        if (index < 0) {
+            return -index - 2;
+        }
+        // Skip clusters without nodes sharing the same base
+        while (index + 1 < nodeBase.length && nodeBase[index + 1] == id) {
+            index++;
+        }
+        return index;
+    }
+
+    private int nodeCell(int id) {
+        int cluster = clusterOfNode(id);
+        return clusters[cluster].nodes[id - nodeBase[cluster]];
+    }
+
+    private int nodeId(int cell) {
+        int cluster = clusterOf(cell);
+        return nodeBase[cluster] + indexOf(clusters[cluster].nodes, cell);
+    }
+
+    private static int indexOf(int[] nodes, int cell) {
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i] == cell) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /*
+    GETTERS
+     */
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * @return Number of entrance nodes in the abstract graph
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Entrances of one cluster with the precomputed distances between them.
+     */
+    private static final class Cluster {
+        private final int[] nodes;        // Cell indices of entrances
+        private final int[][] partners;   // Per entrance, cells on the other side of the border
+        private final int[] distances;    // Row-major table between entrances, INFINITY if not connected
+
+        private Cluster(int[] nodes, int[][] partners, int[] distances) {
+            this.nodes = nodes;
+            this.partners = partners;
+            this.distances = distances;
+        }
+    }
+
+    /**
+     * Collects distinct entrance cells of a cluster with all their partners.
+     */
+    private final class NodeCollector {
+        private final int cluster;
+        private int[] nodes = new int[8];
+        private int[][] partners = new int[8][];
+        private int count;
+
+        private NodeCollector(int cluster) {
+            this.cluster = cluster;
+        }
+
+        /**
+         * @param pairs Entrance pairs of a border, pairs without a cell in the cluster are skipped
+         */
+        private void addPairs(int[] pairs) {
+            for (int i = 0; i < pairs.length; i += 2) {
+                boolean flipped = clusterOf(pairs[i + 1]) == cluster;
+                if (!flipped && clusterOf(pairs[i]) != cluster) {
+                    continue;
+                }
+                int node = flipped ? pairs[i + 1] : pairs[i];
+                int partner = flipped ? pairs[i] : pairs[i + 1];
+                int index = 0;
+                while (index < count && nodes[index] != node) {
+                    index++;
+                }
+                if (index == count) {
+                    if (count == nodes.length) {
+                        nodes = Arrays.copyOf(nodes, count * 2);
+                        partners = Arrays.copyOf(partners, count * 2);
+                    }
+                    nodes[count] = node;
+                    partners[count] = new int[0];
+                    count++;
+                }
+                int[] list = Arrays.copyOf(partners[index], partners[index].length + 1);
+                list[list.length - 1] = partner;
+                partners[index] = list;
+            }
+        }
+    }
+
+    /**
+     * Dijkstra search restricted to one cluster, using local arrays of cluster size.
+     */
+    private final class LocalSearch {
+        private final int[] distance = new int[clusterSize * clusterSize];
+        private final int[] parent = new int[clusterSize * clusterSize];
+        private final int[] stamp = new int[clusterSize * clusterSize];
+        private final BucketQueue queue = new BucketQueue();
+        private int generation;
+        private int x0;
+        private int y0;
+        private int x1;
+        private int y1;
+        private int source;
+
+        private LocalSearch() {
+            queue.ensureCapacity(clusterSize * clusterSize);
+        }
+
+        /**
+         * Search from a cell to every cell of its cluster, or until the target is reached.
+         *
+         * @param cluster Cluster index
+         * @param from    Source cell, inside the cluster
+         * @param target  Cell to stop at, or -1 to search the whole cluster
+         */
+        private void run(int cluster, int from, int target) {
+            x0 = cluster % clustersX * clusterSize;
+            y0 = cluster / clustersX * clusterSize;
+            x1 = Math.min(x0 + clusterSize, grid.getWidth());
+            y1 = Math.min(y0 + clusterSize, grid.getHeight());
+            source = from;
+            // Stamps from earlier searches no longer match, which clears all cells at once
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                generation = 1;
+            }
+            queue.clear();
+
+            int[] offsets = grid.neighbourOffsets();
+            OrdinalDirection[] directions = movement.directions();
+            set(local(from), 0, -1);
+            queue.insertOrDecrease(local(from), 0);
+            while (!queue.isEmpty()) {
+                int current = queue.pop();
+                int cell = cellOf(current);
+                if (cell == target) {
+                    return;
+                }
+                int d = distance[current];
+                int x = grid.x(cell);
+                int y = grid.y(cell);
+                for (OrdinalDirection dir : directions) {
+                    int nx = x + dir.dx;
+                    int ny = y + dir.dy;
+                    if (nx < x0 || nx >= x1 || ny < y0 || ny >= y1) {
+                        continue;
+                    }
+                    int next = cell + offsets[dir.ordinal()];
+                    if (!grid.isWalkable(next) || !movement.canStep(grid, cell, dir)) {
+                        continue;
+                    }
+                    int nextLocal = local(next);
+                    int newDistance = d + dir.cost;
+                    if (stamp[nextLocal] != generation || newDistance < distance[nextLocal]) {
+                        set(nextLocal, newDistance, current);
+                        queue.insertOrDecrease(nextLocal, newDistance);
+                    }
+                }
+            }
+        }
+
+        private void set(int local, int d, int from) {
+            distance[local] = d;
+            parent[local] = from;
+            stamp[local] = generation;
+        }
+
+        private int local(int cell) {
+            return (grid.y(cell) - y0) * clusterSize + grid.x(cell) - x0;
+        }
+
+        private int cellOf(int local) {
+            return grid.index(x0 + local % clusterSize, y0 + local / clusterSize);
+        }
+
+        /**
+         * @return Distance from the source to a cell of the cluster, INFINITY if not reached
+         */
+        private int distanceTo(int cell) {
+            int local = local(cell);
+            return stamp[local] == generation ? distance[local] : INFINITY;
+        }
+
+        /**
+         * @return Cells from the source to a reached cell, both included
+         */
+        private int[] pathTo(int cell) {
+            int length = 0;
+            for (int local = local(cell); local != -1; local = parent[local]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int local = local(cell); local != -1; local = parent[local]) {
+                path[--length] = cellOf(local);
+            }
+            return path;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Indexed 4-ary min-heap over cell indices. Keys are stored per cell in a parallel array and every cell
+ * remembers its position in the heap, so decrease-key is a single sift up.
+ * Besides the int keys of {@link OpenList}, keys can be any long and can also be raised or removed,
+ * as needed by incremental searches.
+ */
+public class IndexedHeap implements OpenList {
+    private static final int ARITY = 4;
+
+    private int[] heap = new int[0];
+    private long[] key = new long[0];
+    private int[] position = new int[0];  // Position of cell in heap, -1 if not queued
+    private int size;
+
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > position.length) {
+            int oldLength = position.length;
+            heap = Arrays.copyOf(heap, capacity);
+            key = Arrays.copyOf(key, capacity);
+            position = Arrays.copyOf(position, capacity);
+            Arrays.fill(position, oldLength, capacity, -1);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int cell) {
+        return position[cell] >= 0;
+    }
+
+    @Override
+    public void insertOrDecrease(int cell, int newKey) {
+        int i = position[cell];
+        if (i < 0) {
+            i = size++;
+        } else if (newKey >= key[cell]) {
+            return;
+        }
+        key[cell] = newKey;
+        siftUp(cell, i);
+    }
+
+    /**
+     * Insert a cell, or change its key to any new value if it is already in the heap.
+     *
+     * @param cell   Cell index
+     * @param newKey New key of the cell
+     */
+    public void insertOrUpdate(int cell, long newKey) {
+        int i = position[cell];
+        if (i < 0) {
+            key[cell] = newKey;
+            siftUp(cell, size++);
+        } else if (newKey < key[cell]) {
+            key[cell] = newKey;
+            siftUp(cell, i);
+        } else {
+            key[cell] = newKey;
+            siftDown(cell, i);
+        }
+    }
+
+    /**
+     * Remove a cell from the heap if it is in it.
+     *
+     * @param cell Cell index
+     */
+    public void remove(int cell) {
+        int i = position[cell];
+        if (i < 0) {
+            return;
+        }
+        position[cell] = -1;
+        int last = heap[--size];
+        if (i < size) {
+            // Move last entry into the gap, it may have to go either way
+            if (key[last] < key[cell]) {
+                siftUp(last, i);
+            } else {
+                siftDown(last, i);
+            }
+        }
+    }
+
+    @Override
+    public int pop() {
+        int top = heap[0];
+        position[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            siftDown(last, 0);
+        }
+        return top;
+    }
+
+    @Override
+    public int peekKey() {
+        return (int) key[heap[0]];
+    }
+
+    /**
+     * @return Lowest key in the heap, undefined if the heap is empty
+     */
+    public long peekLongKey() {
+        return key[heap[0]];
+    }
+
+    /**
+     * @return Cell with the lowest key, undefined if the heap is empty
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    private void siftUp(int cell, int i) {
+        long cellKey = key[cell];
+        while (i > 0) {
+            int parentIndex = (i - 1) / ARITY;
+            int parent = heap[parentIndex];
+            if (key[parent] <= cellKey) {
+                break;
+            }
+            heap[i] = parent;
+            position[parent] = i;
+            i = parentIndex;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+
+    private void siftDown(int cell, int i) {
+        long cellKey = key[cell];
+        while (true) {
+            int first = i * ARITY + 1;
+            if (first >= size) {
+                break;
+            }
+            // Find child with lowest key
+            int end = Math.min(first + ARITY, size);
+            int best = first;
+            long bestKey = key[heap[first]];
+            for (int c = first + 1; c < end; c++) {
+                long childKey = key[heap[c]];
+                if (childKey < bestKey) {
+                    best = c;
+                    bestKey = childKey;
+                }
+            }
+            if (cellKey <= bestKey) {
+                break;
+            }
+            int child = heap[best];
+            heap[i] = child;
+            position[child] = i;
+            i = best;
+        }
+        heap[i] = cell;
+        position[cell] = i;
+    }
+}
@@ -0,0 +1,239 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+/**
+ * Jump Point Search for uniform-cost 8-connected grids ({@link MovementModel#EIGHT_CONNECTED}).
+ * Instead of pushing every neighbour, the search jumps along straight and diagonal lines and only pushes
+ * cells where the optimal path may turn, which removes the symmetric paths plain A* explores on open areas.
+ * Paths have the same cost as those of {@link AStarSolver}.
+ * <p>
+ * When created with a {@link JumpPointTable} the solver runs JPS+: jumps are read from the precomputed table
+ * instead of scanning the grid cell by cell.
+ * <p>
+ * Limits of the search context are honoured like in {@link AStarSolver}, a stopped search returns a partial path.
+ */
+public class JumpPointSolver implements PathFinder {
+    private static final OrdinalDirection[] DIRECTIONS = OrdinalDirection.values();
+    private static final int ALL_DIRECTIONS = 0xFF;
+
+    private final Heuristic heuristic;
+    private final JumpPointTable table;
+
+    /**
+     * Create JPS solver using the octile heuristic.
+     */
+    public JumpPointSolver() {
+        this(StandardHeuristic.OCTILE);
+    }
+
+    public JumpPointSolver(Heuristic heuristic) {
+        this(heuristic, null);
+    }
+
+    /**
+     * Create JPS+ solver using the octile heuristic.
+     *
+     * @param table Precomputed jump distances of the grid that will be searched
+     */
+    public JumpPointSolver(JumpPointTable table) {
+        this(StandardHeuristic.OCTILE, table);
+    }
+
+    /**
+     * @param heuristic Estimate of remaining cost
+     * @param table     Precomputed jump distances, or null to jump by scanning the grid
+     */
+    public JumpPointSolver(Heuristic heuristic, JumpPointTable table) {
+        this.heuristic = heuristic;
+        this.table = table;
+    }
+
+    @Override
+    public PathResult solve(Grid grid, int start, int goal, SearchContext context) {
+        if (table != null && table.getGrid() != grid) {
+            throw new IllegalArgumentException("Jump point table was built for a different grid");
+        }
+        context.reset(grid.size());
+        if (!grid.isWalkable(start) || !grid.isWalkable(goal)) {
+            return context.finish(PathResult.notFound(0));
+        }
+        int goalX = grid.x(goal);
+        int goalY = grid.y(goal);
+        int[] offsets = grid.neighbourOffsets();
+
+        // Reached jump point with the lowest heuristic, where a stopped search leads to
+        int closest = start;
+        int closestH = heuristic.estimate(grid.x(start), grid.y(start), goalX, goalY);
+        context.update(start, 0, -1);
+        context.push(start, closestH);
+
+        while (!context.isOpenEmpty()) {
+            int current = context.pop();
+            if (current == goal) {
+                return context.finish(tracePath(grid, context, goal, PathResult.Status.FOUND));
+            }
+            if (context.shouldStop()) {
+                return context.finish(tracePath(grid, context, closest, context.getStopReason()));
+            }
+            context.close(current);
+
+            int x = grid.x(current);
+            int y = grid.y(current);
+            int g = context.getGCost(current);
+            int parent = context.getParent(current);
+            int directions = parent == -1
+                    ? ALL_DIRECTIONS
+                    : prunedDirections(grid, current, directionBetween(grid.x(parent), grid.y(parent), x, y));
+
+            for (int d = 0; d < 8; d++) {
+                if ((directions & (1 << d)) == 0) {
+                    continue;
+                }
+                int jumpPoint = table != null
+                        ? table.jump(current, d, x, y, goalX, goalY)
+                        : jump(grid, offsets, current, d, goal);
+                if (jumpPoint == -1 || context.isClosed(jumpPoint)) {
+                    continue;
+                }
+                int jx = grid.x(jumpPoint);
+                int jy = grid.y(jumpPoint);
+                int newCost = g + StandardHeuristic.OCTILE.estimate(x, y, jx, jy);
+                if (newCost < context.getGCost(jumpPoint)) {
+                    int h = heuristic.estimate(jx, jy, goalX, goalY);
+                    if (h < closestH) {
+                        closest = jumpPoint;
+                        closestH = h;
+                    }
+                    context.update(jumpPoint, newCost, current);
+                    context.push(jumpPoint, newCost + h);
+                }
+            }
+        }
+        return context.finish(PathResult.notFound(context.getExpanded()));
+    }
+
+    /**
+     * Move from a cell in one direction until a jump point, the goal or an obstacle is found.
+     *
+     * @param grid      Grid being searched
+     * @param offsets   Neighbour offsets of grid
+     * @param cell      Cell to jump from
+     * @param direction Ordinal of direction to jump in
+     * @param goal      Goal cell
+     * @return Jump point, or -1 if an obstacle was hit first
+     */
+    private static int jump(Grid grid, int[] offsets, int cell, int direction, int goal) {
+        int step = offsets[direction];
+        boolean diagonal = (direction & 1) == 1;
+        while (true) {
+            cell += step;
+            if (!grid.isWalkable(cell)) {
+                return -1;
+            }
+            if (cell == goal || hasForcedNeighbour(grid, offsets, cell, direction)) {
+                return cell;
+            }
+            // A diagonal jump stops wherever one of its two straight components finds a jump point
+            if (diagonal && (jump(grid, offsets, cell, (direction + 7) & 7, goal) != -1
+                    || jump(grid, offsets, cell, (direction + 1) & 7, goal) != -1)) {
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Check if a cell entered in the given direction has a neighbour that can only be reached optimally through it.
+     *
+     * @param grid      Grid being searched
+     * @param offsets   Neighbour offsets of grid
+     * @param cell      Cell that was entered
+     * @param direction Ordinal of direction the cell was entered in
+     * @return True if cell is a jump point for this direction
+     */
+    static boolean hasForcedNeighbour(Grid grid, int[] offsets, int cell, int direction) {
+        return forcedDirections(grid, offsets, cell, direction) != 0;
+    }
+
+    /**
+     * Directions worth searching from a cell entered in the given direction: the natural neighbours plus any
+     * forced neighbours. Every other neighbour has an equally short path that does not pass through this cell.
+     *
+     * @param grid      Grid being searched
+     * @param cell      Cell being expanded
+     * @param direction Ordinal of direction the cell was entered in
+     * @return Bit mask of direction ordinals
+     */
+    static int prunedDirections(Grid grid, int cell, int direction) {
+        int natural = (direction & 1) == 1
+                ? (1 << direction) | (1 << ((direction + 7) & 7)) | (1 << ((direction + 1) & 7))
+                : 1 << direction;
+        return natural | forcedDirections(grid, grid.neighbourOffsets(), cell, direction);
+    }
+
+    private static int forcedDirections(Grid grid, int[] offsets, int cell, int direction) {
+        int forced = 0;
+        if ((direction & 1) == 0) {
+            // Straight: a blocked cell beside us opens up the diagonal ahead of it
+            if (!grid.isWalkable(cell + offsets[(direction + 2) & 7]) && grid.isWalkable(cell + offsets[(direction + 1) & 7])) {
+                forced |= 1 << ((direction + 1) & 7);
+            }
+            if (!grid.isWalkable(cell + offsets[(direction + 6) & 7]) && grid.isWalkable(cell + offsets[(direction + 7) & 7])) {
+                forced |= 1 << ((direction + 7) & 7);
+            }
+        } else {
+            // Diagonal: a blocked cell behind us opens up the diagonal next to it
+            if (!grid.isWalkable(cell + offsets[(direction + 3) & 7]) && grid.isWalkable(cell + offsets[(direction + 2) & 7])) {
+                forced |= 1 << ((direction + 2) & 7);
+            }
+            if (!grid.isWalkable(cell + offsets[(direction + 5) & 7]) && grid.isWalkable(cell + offsets[(direction + 6) & 7])) {
+                forced |= 1 << ((direction + 6) & 7);
+            }
+        }
+        return forced;
+    }
+
+    /**
+     * Ordinal of the direction pointing from one cell towards another on the same straight or diagonal line.
+     */
+    static int directionBetween(int fromX, int fromY, int toX, int toY) {
+        int dx = Integer.signum(toX - fromX);
+        int dy = Integer.signum(toY - fromY);
+        for (OrdinalDirection dir : DIRECTIONS) {
+            if (dir.dx == dx && dir.dy == dy) {
+                return dir.ordinal();
+            }
+        }
+        throw new IllegalArgumentException("Cells are equal");
+    }
+
+    /**
+     * Follow parent references from goal back to start, filling in the cells between consecutive jump points.
+     *
+     * @param grid     Grid that was searched
+     * @param context  Context holding the parent references
+     * @param goal     Last cell of the path, the goal or the jump point a stopped search got closest to
+     * @param status   How the search ended
+     * @return Path ordered from start to goal
+     */
+    private static PathResult tracePath(Grid grid, SearchContext context, int goal, PathResult.Status status) {
+        int length = 1;
+        for (int cell = goal; context.getParent(cell) != -1; cell = context.getParent(cell)) {
+            int parent = context.getParent(cell);
+            length += Math.max(Math.abs(grid.x(cell) - grid.x(parent)), Math.abs(grid.y(cell) - grid.y(parent)));
+        }
+        int[] cells = new int[length];
+        int[] offsets = grid.neighbourOffsets();
+        int cell = goal;
+        cells[--length] = cell;
+        while (context.getParent(cell) != -1) {
+            int parent = context.getParent(cell);
+            int step = offsets[directionBetween(grid.x(cell), grid.y(cell), grid.x(parent), grid.y(parent))];
+            while (cell != parent) {
+                cell += step;
+                cells[--length] = cell;
+            }
+        }
+        return new PathResult(cells, grid, context.getGCost(goal), context.getExpanded(), status);
+    }
+}
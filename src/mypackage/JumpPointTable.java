@@ -0,0 +1,122 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+/**
+ * Precomputed jump distances for JPS+. For every walkable cell and each of the 8 directions the table stores
+ * how far a jump from that cell travels: a positive distance leads to a jump point, zero or a negative distance
+ * gives the number of walkable cells before an obstacle.
+ * <p>
+ * The table is a snapshot of the grid and must be rebuilt when the grid changes.
+ */
+public class JumpPointTable {
+    private static final OrdinalDirection[] DIRECTIONS = OrdinalDirection.values();
+
+    private final Grid grid;
+    private final short[] distances;  // Indexed by cell * 8 + direction ordinal
+
+    private JumpPointTable(Grid grid) {
+        this.grid = grid;
+        this.distances = new short[grid.size() * 8];
+    }
+
+    /**
+     * Precompute jump distances for every cell of a grid.
+     *
+     * @param grid Grid to precompute for, at most 32767 cells wide and high
+     * @return Jump point table of grid
+     */
+    public static JumpPointTable build(Grid grid) {
+        if (grid.getWidth() > Short.MAX_VALUE || grid.getHeight() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid too large for jump point table: " + grid.getWidth() + "x" + grid.getHeight());
+        }
+        JumpPointTable table = new JumpPointTable(grid);
+        // Diagonal distances depend on straight ones, so straight directions (even ordinals) go first
+        for (int d = 0; d < 8; d += 2) {
+            table.fill(d);
+        }
+        for (int d = 1; d < 8; d += 2) {
+            table.fill(d);
+        }
+        return table;
+    }
+
+    /**
+     * Fill distances for one direction, visiting cells so that the neighbour in that direction is done first.
+     *
+     * @param direction Direction ordinal
+     */
+    private void fill(int direction) {
+        OrdinalDirection dir = DIRECTIONS[direction];
+        int[] offsets = grid.neighbourOffsets();
+        int step = offsets[direction];
+        boolean diagonal = dir.isDiagonal();
+        int width = grid.getWidth();
+        int height = grid.getHeight();
+
+        for (int i = 0; i < height; i++) {
+            int y = dir.dy > 0 ? height - 1 - i : i;
+            for (int j = 0; j < width; j++) {
+                int x = dir.dx > 0 ? width - 1 - j : j;
+                int cell = grid.index(x, y);
+                if (!grid.isWalkable(cell)) {
+                    continue;
+                }
+                int next = cell + step;
+                int distance;
+                if (!grid.isWalkable(next)) {
+                    distance = 0;
+                } else if (JumpPointSolver.hasForcedNeighbour(grid, offsets, next, direction)
+                        || diagonal && (get(next, (direction + 7) & 7) > 0 || get(next, (direction + 1) & 7) > 0)) {
+                    distance = 1;
+                } else {
+                    int after = get(next, direction);
+                    distance = after > 0 ? after + 1 : after - 1;
+                }
+                distances[cell * 8 + direction] = (short) distance;
+            }
+        }
+    }
+
+    private int get(int cell, int direction) {
+        return distances[cell * 8 + direction];
+    }
+
+    /**
+     * Jump from a cell in one direction, stopping early at the goal or at the point where a diagonal jump
+     * lines up with the goal.
+     *
+     * @param cell      Cell to jump from
+     * @param direction Direction ordinal
+     * @param x         X position of cell
+     * @param y         Y position of cell
+     * @param goalX     X position of goal
+     * @param goalY     Y position of goal
+     * @return Cell the jump ends at, or -1 if an obstacle is hit first
+     */
+    int jump(int cell, int direction, int x, int y, int goalX, int goalY) {
+        OrdinalDirection dir = DIRECTIONS[direction];
+        int step = grid.neighbourOffsets()[direction];
+        int distance = get(cell, direction);
+        int dx = goalX - x;
+        int dy = goalY - y;
+
+        int goalDistance = -1;
+        if (dir.isDiagonal()) {
+            if (Integer.signum(dx) == dir.dx && Integer.signum(dy) == dir.dy) {
+                goalDistance = Math.min(Math.abs(dx), Math.abs(dy));
+            }
+        } else if (dir.dx != 0 ? dy == 0 && Integer.signum(dx) == dir.dx : dx == 0 && Integer.signum(dy) == dir.dy) {
+            goalDistance = Math.abs(dx) + Math.abs(dy);
+        }
+
+        if (goalDistance != -1 && goalDistance <= Math.abs(distance)) {
+            return cell + goalDistance * step;
+        }
+        return distance > 0 ? cell + distance * step : -1;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+}
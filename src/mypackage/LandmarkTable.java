@@ -0,0 +1,361 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Exact distances from a few landmark cells to every cell of a grid, for the differential heuristic of ALT
+ * (A*, landmarks, triangle inequality). For any landmark L, the cost from a cell to the goal is at least
+ * |d(L, cell) - d(L, goal)|. Unlike distance heuristics this sees walls, so on mazes and maps with long
+ * detours A* expands far fewer cells with {@link #heuristic()}.
+ * <p>
+ * Distance layers live outside the Java heap: built tables in direct buffers, loaded tables mapped from
+ * their file. Layout of a table file, all values little-endian:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "GLMK"
+ *      4     2  format version, currently 1
+ *      6     1  ordinal of the movement model
+ *      7     1  reserved, 0
+ *      8     4  width
+ *     12     4  height
+ *     16     4  number of landmarks K
+ *     20    12  reserved, 0
+ *     32   4 K  cell index of every landmark
+ * 32 + 4 K      K distance layers: one int per cell index in the padded layout of {@link Grid},
+ *               {@link #UNREACHABLE} for cells not connected to the landmark
+ * </pre>
+ * Distances are for uniform cost and are only valid for the grid as it was when the table was built.
+ * Rebuild the table after the grid changes.
+ */
+public final class LandmarkTable {
+    private static final int MAGIC = 'G' | 'L' << 8 | 'M' << 16 | 'K' << 24;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final ThreadLocal<SearchContext> CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+    /**
+     * Stored distance of cells that cannot be reached from a landmark.
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final MovementModel movement;
+    private final int[] landmarks;
+    private final ByteBuffer[] layers;
+    private final IntBuffer[] distances;
+
+    private LandmarkTable(int width, int height, MovementModel movement, int[] landmarks, ByteBuffer[] layers) {
+        this.width = width;
+        this.height = height;
+        this.stride = width + 2;
+        this.movement = movement;
+        this.landmarks = landmarks;
+        this.layers = layers;
+        this.distances = new IntBuffer[layers.length];
+        for (int i = 0; i < layers.length; i++) {
+            distances[i] = layers[i].order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+    }
+
+    /**
+     * Pick landmarks spread around the edge of the grid and compute their distances.
+     *
+     * @param grid     Grid to build the table for
+     * @param movement Movement model of the searches using the table
+     * @param count    Number of landmarks, more give a better heuristic but cost 4 bytes per cell each
+     * @return Table with up to count landmarks, fewer if the grid has fewer walkable cells near its edge
+     */
+    public static LandmarkTable build(Grid grid, MovementModel movement, int count) {
+        return build(grid, movement, selectLandmarks(grid, count));
+    }
+
+    /**
+     * Compute the distances of the given landmarks, running one Dijkstra search per landmark in parallel.
+     *
+     * @param grid      Grid to build the table for
+     * @param movement  Movement model of the searches using the table
+     * @param landmarks Cell indices of walkable landmark cells
+     * @return Table of the landmarks
+     */
+    public static LandmarkTable build(Grid grid, MovementModel movement, int[] landmarks) {
+        if (landmarks.length == 0) {
+            throw new IllegalArgumentException("At least one landmark is needed");
+        }
+        for (int landmark : landmarks) {
+            if (!grid.isWalkable(landmark)) {
+                throw new IllegalArgumentException("Landmark is not walkable: " + grid.x(landmark) + "," + grid.y(landmark));
+            }
+        }
+        ByteBuffer[] layers = new ByteBuffer[landmarks.length];
+        IntStream.range(0, landmarks.length).parallel().forEach(i -> {
+            ByteBuffer layer = ByteBuffer.allocateDirect(4 * grid.size()).order(ByteOrder.LITTLE_ENDIAN);
+            fillDistances(grid, movement, landmarks[i], layer.asIntBuffer());
+            layers[i] = layer;
+        });
+        return new LandmarkTable(grid.getWidth(), grid.getHeight(), movement, landmarks.clone(), layers);
+    }
+
+    /**
+     * Choose up to count walkable cells evenly spaced along the edge of the grid.
+     * Landmarks behind the start or goal give the tightest bounds, and the edge lies behind most cells.
+     */
+    static int[] selectLandmarks(Grid grid, int count) {
+        int w = grid.getWidth();
+        int h = grid.getHeight();
+        long perimeter = 2L * (w + h);
+        int[] landmarks = new int[count];
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            // Walk around the edge clockwise from the top left corner
+            long position = perimeter * i / count;
+            int x;
+            int y;
+            if (position < w) {
+                x = (int) position;
+                y = 0;
+            } else if (position < w + h) {
+                x = w - 1;
+                y = (int) (position - w);
+            } else if (position < 2L * w + h) {
+                x = (int) (2L * w + h - 1 - position);
+                y = h - 1;
+            } else {
+                x = 0;
+                y = (int) (perimeter - 1 - position);
+            }
+            int cell = nearestWalkable(grid, x, y);
+            if (cell != -1 && Arrays.stream(landmarks, 0, found).noneMatch(l -> l == cell)) {
+                landmarks[found++] = cell;
+            }
+        }
+        return Arrays.copyOf(landmarks, found);
+    }
+
+    /**
+     * @return Walkable cell on the smallest square ring around the position, or -1 if the grid has none
+     */
+    private static int nearestWalkable(Grid grid, int x, int y) {
+        int maxRadius = Math.max(grid.getWidth(), grid.getHeight());
+        for (int r = 0; r < maxRadius; r++) {
+            for (int dy = -r; dy <= r; dy++) {
+                // Inner rows of the ring only have their two end cells
+                int step = dy == -r || dy == r ? 1 : 2 * r;
+                for (int dx = -r; dx <= r; dx += Math.max(step, 1)) {
+                    if (grid.inBounds(x + dx, y + dy) && grid.isWalkable(x + dx, y + dy)) {
+                        return grid.index(x + dx, y + dy);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Dijkstra from the landmark over the whole grid. All movement models are symmetric, so the distance from
+     * the landmark to a cell is also the distance from the cell to the landmark.
+     */
+    private static void fillDistances(Grid grid, MovementModel movement, int landmark, IntBuffer layer) {
+        SearchContext context = CONTEXTS.get();
+        context.reset(grid.size());
+        int[] offsets = grid.neighbourOffsets();
+        OrdinalDirection[] directions = movement.directions();
+        context.update(landmark, 0, -1);
+        context.push(landmark, 0);
+        while (!context.isOpenEmpty()) {
+            int current = context.pop();
+            context.close(current);
+            int g = context.getGCost(current);
+            for (OrdinalDirection dir : directions) {
+                int next = current + offsets[dir.ordinal()];
+                if (!grid.isWalkable(next) || context.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                    continue;
+                }
+                int newCost = g + dir.cost;
+                if (newCost < context.getGCost(next)) {
+                    context.update(next, newCost, current);
+                    context.push(next, newCost);
+                }
+            }
+        }
+        // Unreached cells report Integer.MAX_VALUE, the same as UNREACHABLE
+        for (int cell = 0; cell < grid.size(); cell++) {
+            layer.put(cell, context.getGCost(cell));
+        }
+    }
+
+    /**
+     * Heuristic taking the best bound of all landmarks, and the default heuristic of the movement model where
+     * that is better. Consistent, so A* with it still finds optimal paths. Only for grids of the size of
+     * this table.
+     *
+     * @return Differential heuristic
+     */
+    public Heuristic heuristic() {
+        return new DifferentialHeuristic(movement.getDefaultHeuristic());
+    }
+
+    /**
+     * @param landmark Number of the landmark, from 0 to {@link #getLandmarkCount()}
+     * @param cell     Cell index
+     * @return Cost from the landmark to the cell, or {@link #UNREACHABLE}
+     */
+    public int getDistance(int landmark, int cell) {
+        return distances[landmark].get(cell);
+    }
+
+    /*
+    FILES
+     */
+
+    /**
+     * Write the table to a file.
+     *
+     * @param path File to create or replace
+     * @throws IOException If the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE + 4 * landmarks.length).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).put((byte) movement.ordinal()).put((byte) 0);
+            header.putInt(width).putInt(height).putInt(landmarks.length);
+            header.position(HEADER_SIZE);
+            for (int landmark : landmarks) {
+                header.putInt(landmark);
+            }
+            header.flip();
+            writeFully(channel, header);
+            for (ByteBuffer layer : layers) {
+                writeFully(channel, layer.duplicate().clear());
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Map a table file into memory. Distances are read from the mapping, so opening is fast and pages are
+     * only loaded once searches touch them.
+     *
+     * @param path File to open
+     * @param grid Grid the table was built for
+     * @return Table backed by the file
+     * @throws IOException If the file cannot be read, is not a valid table or does not fit the grid
+     */
+    public static LandmarkTable open(Path path, Grid grid) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, header, 0, path);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException("Not a landmark table, bad magic: " + path);
+            }
+            if (header.getShort(4) != VERSION) {
+                throw new IOException("Unsupported landmark table version " + header.getShort(4) + ": " + path);
+            }
+            int movementOrdinal = header.get(6);
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            int count = header.getInt(16);
+            if (movementOrdinal < 0 || movementOrdinal >= MovementModel.values().length) {
+                throw new IOException("Unknown movement model " + movementOrdinal + ": " + path);
+            }
+            if (width != grid.getWidth() || height != grid.getHeight()) {
+                throw new IOException("Landmark table of " + width + "x" + height + " does not fit grid of "
+                        + grid.getWidth() + "x" + grid.getHeight() + ": " + path);
+            }
+            long layerSize = 4L * grid.size();
+            long layersStart = HEADER_SIZE + 4L * count;
+            if (count <= 0 || channel.size() != layersStart + count * layerSize) {
+                throw new IOException("Landmark table has " + channel.size() + " bytes, expected "
+                        + (layersStart + Math.max(count, 0) * layerSize) + ": " + path);
+            }
+            ByteBuffer landmarkBuffer = ByteBuffer.allocate(4 * count).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, landmarkBuffer, HEADER_SIZE, path);
+            int[] landmarks = new int[count];
+            landmarkBuffer.flip();
+            landmarkBuffer.asIntBuffer().get(landmarks);
+            // One mapping per layer, a single mapping is limited to 2 GB
+            ByteBuffer[] layers = new ByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                layers[i] = channel.map(FileChannel.MapMode.READ_ONLY, layersStart + i * layerSize, layerSize);
+            }
+            return new LandmarkTable(width, height, MovementModel.values()[movementOrdinal], landmarks, layers);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position, Path path) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of landmark table: " + path);
+            }
+        }
+    }
+
+    /*
+    GETTERS
+     */
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @return Copy of the cell indices of the landmarks
+     */
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    /**
+     * Largest difference between the distances of cell and goal over all landmarks both are connected to.
+     */
+    private final class DifferentialHeuristic implements Heuristic {
+        private final Heuristic base;
+
+        private DifferentialHeuristic(Heuristic base) {
+            this.base = base;
+        }
+
+        @Override
+        public int estimate(int x, int y, int goalX, int goalY) {
+            int cell = (y + 1) * stride + x + 1;
+            int goal = (goalY + 1) * stride + goalX + 1;
+            int best = base.estimate(x, y, goalX, goalY);
+            for (IntBuffer layer : distances) {
+                int fromCell = layer.get(cell);
+                int fromGoal = layer.get(goal);
+                if (fromCell != UNREACHABLE && fromGoal != UNREACHABLE) {
+                    best = Math.max(best, Math.abs(fromCell - fromGoal));
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package mypackage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non-negative values with power-of-two buckets.
+ * Bucket i counts values whose highest set bit is bit i - 1, bucket 0 counts zeros.
+ */
+public class LogHistogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long value) {
+        counts.incrementAndGet(bucket(value));
+    }
+
+    private static int bucket(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * @param bucket Bucket index
+     * @return Largest value counted in bucket
+     */
+    public static long upperBound(int bucket) {
+        return bucket == 0 ? 0 : bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    public long getCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    public int getBucketCount() {
+        return BUCKETS;
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Estimate a percentile as the upper bound of the bucket containing it, so within a factor 2 of the real value.
+     *
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound of percentile, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long total = getTotalCount();
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank && seen > 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of long entries, for searches over states that have no dense cell index.
+ * Callers pack the priority into the high half and a state number into the low half. There is no decrease-key:
+ * a state is pushed again with its lower priority and its outdated entries are skipped when popped.
+ */
+final class LongHeap {
+    private long[] heap = new long[1024];
+    private int size;
+
+    void push(long entry) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0 && heap[(i - 1) >>> 1] > entry) {
+            heap[i] = heap[(i - 1) >>> 1];
+            i = (i - 1) >>> 1;
+        }
+        heap[i] = entry;
+    }
+
+    /**
+     * @return Smallest entry, the heap must not be empty
+     */
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
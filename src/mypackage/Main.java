@@ -1,100 +1,143 @@
 package mypackage;
 
-import mypackage.AStarCell.CellState;
-
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
 
 public class Main {
     // Defaults
     private static final Color PANEL_COLOR = new JPanel().getBackground();
-    private static final int ROWS = 50, COLS = 50;
+    private static final int DEFAULT_ROWS = 50, DEFAULT_COLS = 50;
     private static final int WIDTH = 800, HEIGHT = 800;
     private static final int INSTRUCT_HEIGHT = 40;
+    private static final int FRAME_RATE = 30;
     private static final String START_INSTRUCT = "Instructions: Select start (blue) and stop (green) positions by clicking on the desired blocks.";
-    // Matrices
-    private static JLabel[][] labelMap;
-    private static AStarCell[][] cellMap;
+    // Map size, can be set with command line arguments
+    private static int rows = DEFAULT_ROWS, cols = DEFAULT_COLS;
+    // Map, and the map loaded from a file that every round starts from
+    private static Grid grid;
+    private static Grid loadedMap;
     // GUI Components
     private static Thread solveThread;
-    private static JPanel displayPanel;
+    private static SwingEventBatcher eventBatcher;
+    private static GridCanvas canvas;
     private static JButton solveButton;
     private static JLabel instructLabel;
     // start & stop points
-    private static AStarCell start = null;
-    private static AStarCell stop = null;
+    private static Point start = null;
+    private static Point stop = null;
 
-    public static void main(String[] args) {
-        initGUI();
-        roundSetup();
+    /**
+     * @param args Optional map size as columns and rows, defaults to 50 by 50,
+     *             or a map file to load (text benchmark .map or binary map file),
+     *             or {@code run} followed by the arguments of {@link ScenarioRunner} to run scenarios without GUI
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("run")) {
+            ScenarioRunner.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length == 2) {
+            cols = Integer.parseInt(args[0]);
+            rows = Integer.parseInt(args[1]);
+        } else if (args.length == 1) {
+            loadedMap = MapFile.load(Paths.get(args[0]));
+            cols = loadedMap.getWidth();
+            rows = loadedMap.getHeight();
+        }
+        SwingUtilities.invokeLater(() -> {
+            initGUI();
+            roundSetup();
+        });
     }
 
     /**
-     * Setup components and arrays for new round.
+     * Setup components and map for new round.
      */
     private static void roundSetup() {
         addComponentListeners();
-
-        cellMap = new AStarCell[ROWS][COLS];
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLS; j++) {
-                cellMap[i][j] = new AStarCell(j, i);
+        if (loadedMap == null) {
+            grid = new Grid(cols, rows);
+            return;
+        }
+        grid = new Grid(cols, rows, loadedMap.words().clone());
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                if (!grid.isWalkable(x, y)) {
+                    canvas.setCellColor(x, y, Color.black);
+                }
             }
         }
+        canvas.flush();
     }
 
     /**
-     * Find path on map using a thread for AStar
+     * Find path on map using a thread for AStar.
+     * Search events are painted on the event dispatch thread at a fixed frame rate.
      */
     private static void findPath() {
-        // Set costs of start and stop points
-        start.updateHCost(stop);
-        start.setgCost(0.0);
-        stop.sethCost(0.0);
-        stop.updateGCost(start);
-        // Create and run daemon thread to find path
-        solveThread = new Thread(() -> AStarSolver.solve(cellMap, start, stop));
-        solveThread.setDaemon(true);
-        solveThread.start();
-    }
+        int startIndex = grid.index(start.x, start.y);
+        int stopIndex = grid.index(stop.x, stop.y);
 
-    /**
-     * Find indices of given JLabel object on label matrix.
-     *
-     * @param label Label object to look for.
-     * @return Point representing position of label in matrix.
-     */
-    private static Point findLabelIndices(JLabel label) {
-        for (int i = 0; i < labelMap.length; i++) {
-            for (int j = 0; j < labelMap[0].length; j++) {
-                if (label == labelMap[i][j]) {
-                    return new Point(j, i);
+        eventBatcher = new SwingEventBatcher(new SwingEventBatcher.CellPainter() {
+            @Override
+            public void paintCell(int cell, boolean expanded) {
+                // Keep start and stop colors
+                if (cell != startIndex && cell != stopIndex) {
+                    canvas.setCellColor(grid.x(cell), grid.y(cell), Color.red);
                 }
             }
-        }
-        return null;
+
+            @Override
+            public void frameFinished() {
+                canvas.flush();
+            }
+
+            @Override
+            public void paintResult(PathResult result) {
+                if (!result.isFound()) {
+                    JOptionPane.showMessageDialog(null, "No solution found!", "Error", JOptionPane.ERROR_MESSAGE, UIManager.getIcon("OptionPane.errorIcon"));
+                    return;
+                }
+                // Color path between start and stop
+                for (int i = 1; i < result.getLength() - 1; i++) {
+                    canvas.setCellColor(result.getX(i), result.getY(i), Color.yellow);
+                }
+                canvas.flush();
+            }
+        }, FRAME_RATE);
+
+        SearchContext context = new SearchContext(grid.size());
+        context.setListener(eventBatcher);
+        // Create and run daemon thread to find path
+        Grid searchGrid = grid;
+        solveThread = new Thread(() -> new AStarSolver().solve(searchGrid, startIndex, stopIndex, context));
+        solveThread.setDaemon(true);
+        solveThread.start();
     }
 
     /**
-     * Change state of cell at point in matrix.
+     * Change a cell to or from an obstacle and update its color.
      *
-     * @param p         Position of cell.
-     * @param cellState New state of cell.
+     * @param p       Position of cell.
+     * @param blocked New state of cell.
      */
-    private static void setCellState(Point p, CellState cellState) {
-        cellMap[p.y][p.x].setState(cellState);
+    private static void setBlocked(Point p, boolean blocked) {
+        grid.setWalkable(p.x, p.y, !blocked);
+        canvas.setCellColor(p.x, p.y, blocked ? Color.black : PANEL_COLOR);
     }
 
     /**
-     * Set background color of label in label matrix at a given position to a given color.
+     * Check if cell at position is the start or stop cell.
      *
-     * @param cell  Cell to change state of.
-     * @param color Color to change background to.
+     * @param p Position of cell.
+     * @return True if cell is start or stop.
      */
-    public static void setLabelColor(AStarCell cell, Color color) {
-        labelMap[cell.getY()][cell.getX()].setBackground(color);
+    private static boolean isStartOrStop(Point p) {
+        return p.equals(start) || p.equals(stop);
     }
 
     // GUI related functions
@@ -103,7 +146,7 @@ public class Main {
      * Initialize GUI all components.
      */
     private static void initGUI() {
-        // Create panel to contain instructions panel and matrix display table
+        // Create panel to contain instructions panel and map display
         JPanel contentPanel = new JPanel();
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
 
@@ -126,27 +169,17 @@ public class Main {
         instructPanel.setPreferredSize(new Dimension(WIDTH, INSTRUCT_HEIGHT));
         instructPanel.setSize(WIDTH, INSTRUCT_HEIGHT);
 
-        // Create matrix of labels representing the map
-        labelMap = new JLabel[ROWS][COLS];
-        displayPanel = new JPanel(new GridLayout(ROWS, COLS, -1, -1));
-        displayPanel.setMinimumSize(new Dimension(WIDTH, HEIGHT));
-        displayPanel.setPreferredSize(new Dimension(WIDTH, HEIGHT));
+        // Create canvas painting the map, zoomed with the mouse wheel and panned with the right mouse button
+        canvas = new GridCanvas(cols, rows, PANEL_COLOR);
+        canvas.setBackground(Color.darkGray);
+        canvas.setMinimumSize(new Dimension(WIDTH, HEIGHT));
+        canvas.setPreferredSize(new Dimension(WIDTH, HEIGHT));
 
         JFrame frame = new JFrame();
 
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLS; j++) {
-                JLabel label = new JLabel();
-                label.setOpaque(true);
-                label.setBorder(BorderFactory.createLineBorder(Color.black, 1));
-                labelMap[i][j] = label;
-                displayPanel.add(label);
-            }
-        }
-
         // Add final components and set sizes
         contentPanel.add(instructPanel);
-        contentPanel.add(displayPanel);
+        contentPanel.add(canvas);
         frame.setContentPane(contentPanel);
         frame.setSize(WIDTH, HEIGHT + INSTRUCT_HEIGHT);
         frame.pack();
@@ -170,52 +203,52 @@ public class Main {
         MouseAdapter blockListener = new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                // Get selected component & ensure it is of type JLabel.
-                Component component = displayPanel.getComponentAt(e.getPoint());
-                if (!(component instanceof JLabel)) {
+                // Get selected cell & ensure it is on the map.
+                Point p = canvas.cellAt(e.getX(), e.getY());
+                if (p == null || !SwingUtilities.isLeftMouseButton(e)) {
                     return;
                 }
-                JLabel selectedLabel = (JLabel) component;
                 // Can't block start and stop positions.
-                if (selectedLabel.getBackground() == Color.blue || selectedLabel.getBackground() == Color.green) {
+                if (isStartOrStop(p)) {
                     return;
                 }
-                // Get position of selected label in matrix
-                Point p = findLabelIndices(selectedLabel);
-                if (p != null) {
-                    // Either set or unset an obstacle cell based on the current state of the cell.
-                    if (selectedLabel.getBackground() == Color.black) {
-                        setCellState(p, CellState.OPEN);
-                        selectedLabel.setBackground(PANEL_COLOR);
-                    } else if (selectedLabel.getBackground() == PANEL_COLOR) {
-                        setCellState(p, CellState.BLOCK);
-                        selectedLabel.setBackground(Color.black);
-                    }
-                }
+                // Either set or unset an obstacle cell based on the current state of the cell.
+                setBlocked(p, grid.isWalkable(p.x, p.y));
+                canvas.flush();
             }
         };
 
         // Mouse listener for tracking mouse drag to create obstacles
-        MouseMotionAdapter movementListener = new MouseMotionAdapter() {
+        MouseAdapter movementListener = new MouseAdapter() {
+            private Point last;
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                last = SwingUtilities.isLeftMouseButton(e) ? canvas.cellAt(e.getX(), e.getY()) : null;
+            }
+
             @Override
             public void mouseDragged(MouseEvent e) {
-                // Get selected component & ensure it is of type JLabel.
-                Component component = displayPanel.getComponentAt(e.getPoint());
-                if (!(component instanceof JLabel)) {
-                    return;
-                }
-                JLabel selectedLabel = (JLabel) component;
-                // Can't overwrite start, stop or other obstacle cells.
-                if (selectedLabel.getBackground() == Color.black || selectedLabel.getBackground() == Color.blue || selectedLabel.getBackground() == Color.green) {
+                // Get selected cell & ensure it is on the map.
+                Point p = canvas.cellAt(e.getX(), e.getY());
+                if (p == null || !SwingUtilities.isLeftMouseButton(e)) {
+                    last = null;
                     return;
                 }
-                // Get position of selected label in matrix
-                Point p = findLabelIndices(selectedLabel);
-                if (p != null) {
-                    // Set cell to obstacle
-                    setCellState(p, CellState.BLOCK);
-                    selectedLabel.setBackground(Color.black);
+                // Block every cell on the line since the last event, so fast drags leave no gaps.
+                Point from = last != null ? last : p;
+                int steps = Math.max(Math.abs(p.x - from.x), Math.abs(p.y - from.y));
+                for (int i = 0; i <= steps; i++) {
+                    int x = steps == 0 ? p.x : from.x + Math.round((float) (p.x - from.x) * i / steps);
+                    int y = steps == 0 ? p.y : from.y + Math.round((float) (p.y - from.y) * i / steps);
+                    Point cell = new Point(x, y);
+                    // Can't overwrite start, stop or other obstacle cells.
+                    if (!isStartOrStop(cell) && grid.isWalkable(x, y)) {
+                        setBlocked(cell, true);
+                    }
                 }
+                last = p;
+                canvas.flush();
             }
         };
 
@@ -223,42 +256,35 @@ public class Main {
         MouseAdapter startStopListener = new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                // Get selected component & ensure it is of type JLabel.
-                Component component = displayPanel.getComponentAt(e.getPoint());
-                if (!(component instanceof JLabel)) {
+                // Get selected cell & ensure it is on the map.
+                Point p = canvas.cellAt(e.getX(), e.getY());
+                if (p == null || !SwingUtilities.isLeftMouseButton(e)) {
                     return;
                 }
-                JLabel selectedLabel = (JLabel) component;
                 // Unset start or stop cells if selected cell is set to either.
-                if (selectedLabel.getBackground() == Color.blue) {
+                if (p.equals(start)) {
                     start = null;
-                    selectedLabel.setBackground(PANEL_COLOR);
-                } else if (selectedLabel.getBackground() == Color.green) {
+                    canvas.setCellColor(p.x, p.y, PANEL_COLOR);
+                } else if (p.equals(stop)) {
                     stop = null;
-                    selectedLabel.setBackground(PANEL_COLOR);
-                } else {
+                    canvas.setCellColor(p.x, p.y, PANEL_COLOR);
+                } else if (start == null) {
                     // Otherwise set selected cell to start or stop (respectively)
-                    Point p = findLabelIndices(selectedLabel);
-                    if (p != null) {
-                        AStarCell cell = cellMap[p.y][p.x];
-                        if (start == null) {
-                            cell.setState(CellState.START);
-                            start = cell;
-                            selectedLabel.setBackground(Color.blue);
-                        } else if (stop == null) {
-                            cell.setState(CellState.STOP);
-                            stop = cell;
-                            selectedLabel.setBackground(Color.green);
-                        }
-                    }
+                    start = p;
+                    canvas.setCellColor(p.x, p.y, Color.blue);
+                } else if (stop == null) {
+                    stop = p;
+                    canvas.setCellColor(p.x, p.y, Color.green);
                 }
+                canvas.flush();
 
                 if (start != null && stop != null) {
                     instructLabel.setText(fillString("Click & drag to place obstacles. If done, click 'solve.'"));
                     solveButton.setEnabled(true);
-                    displayPanel.removeMouseListener(this);
-                    displayPanel.addMouseListener(blockListener);
-                    displayPanel.addMouseMotionListener(movementListener);
+                    canvas.removeMouseListener(this);
+                    canvas.addMouseListener(blockListener);
+                    canvas.addMouseListener(movementListener);
+                    canvas.addMouseMotionListener(movementListener);
                 }
             }
         };
@@ -270,7 +296,8 @@ public class Main {
                 // Text of button determines the action
                 String butText = solveButton.getText();
                 if (butText.equals("Reset")) {
-                    // Interrupt solve thread if still running, otherwise start new round
+                    // Stop painting events of a search that is still running, then start new round
+                    eventBatcher.stop();
                     if (solveThread.isAlive()) {
                         solveThread.interrupt();
                     }
@@ -281,8 +308,9 @@ public class Main {
                     roundSetup();
                 } else {
                     // Remove listeners to set obstacle cells
-                    displayPanel.removeMouseListener(blockListener);
-                    displayPanel.removeMouseMotionListener(movementListener);
+                    canvas.removeMouseListener(blockListener);
+                    canvas.removeMouseListener(movementListener);
+                    canvas.removeMouseMotionListener(movementListener);
                     // Find path
                     findPath();
                     instructLabel.setText(fillString("Click reset to restart."));
@@ -292,7 +320,7 @@ public class Main {
         });
 
         // Finally add listener to check for selected start and stop positions.
-        displayPanel.addMouseListener(startStopListener);
+        canvas.addMouseListener(startStopListener);
     }
 
     /**
@@ -303,12 +331,8 @@ public class Main {
         solveButton.setText("Solve!");
         start = null;
         stop = null;
-        // Clear JLabel background colors.
-        for (JLabel[] row : labelMap) {
-            for (JLabel cell : row) {
-                cell.setBackground(PANEL_COLOR);
-            }
-        }
+        // Clear cell colors.
+        canvas.clear(PANEL_COLOR);
     }
 
     /**
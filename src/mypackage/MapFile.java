@@ -0,0 +1,211 @@
+package mypackage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary map file, opened by memory mapping.
+ * <p>
+ * Layout, all values little-endian:
+ * <pre>
+ * offset  size  field
+ *      0     4  magic "GMAP"
+ *      4     2  format version, currently 1
+ *      6     1  bytes per cell of the cost layer: 0 (no costs), 1 or 2
+ *      7     1  reserved, 0
+ *      8     4  width
+ *     12     4  height
+ *     16    16  reserved, 0
+ *     32        walkability layer: one bit per cell index, in the padded layout of {@link Grid},
+ *               as (width + 2) * (height + 2) bits rounded up to whole 64-bit words
+ *               cost layer, if present: one unsigned value per cell index, in the same padded layout
+ * </pre>
+ * Because the walkability layer has exactly the layout of a grid in memory, loading it is a single bulk copy
+ * from the mapping and the pages are shared with every other process mapping the same file.
+ * The cost layer is available as a view on the mapping through {@link #costLayer()},
+ * or copied into {@link TerrainCosts} with {@link TerrainCosts#fromMapFile}.
+ */
+public final class MapFile {
+    private static final int MAGIC = 'G' | 'M' << 8 | 'A' << 16 | 'P' << 24;
+    private static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    private final Path path;
+    private final int width;
+    private final int height;
+    private final int costBytes;
+    private final MappedByteBuffer walkability;
+    private final MappedByteBuffer costs;
+
+    private MapFile(Path path, int width, int height, int costBytes, MappedByteBuffer walkability, MappedByteBuffer costs) {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.costBytes = costBytes;
+        this.walkability = walkability;
+        this.costs = costs;
+    }
+
+    /**
+     * Map a binary map file into memory and check its header. The layers stay mapped while this object is reachable.
+     *
+     * @param path File to open
+     * @return Opened map file
+     * @throws IOException If the file cannot be read or is not a valid map file
+     */
+    public static MapFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a map file, too short: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+                // Read until the header is complete
+            }
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a map file, bad magic: " + path);
+            }
+            if (buffer.getShort(4) != VERSION) {
+                throw new IOException("Unsupported map file version " + buffer.getShort(4) + ": " + path);
+            }
+            int costBytes = buffer.get(6);
+            int width = buffer.getInt(8);
+            int height = buffer.getInt(12);
+            if (width <= 0 || height <= 0 || (long) (width + 2) * (height + 2) > Integer.MAX_VALUE) {
+                throw new IOException("Invalid map dimensions " + width + "x" + height + ": " + path);
+            }
+            if (costBytes < 0 || costBytes > 2) {
+                throw new IOException("Invalid cost layer width " + costBytes + ": " + path);
+            }
+            long expected = fileSize(width, height, costBytes);
+            if (fileSize != expected) {
+                throw new IOException("Map file has " + fileSize + " bytes, expected " + expected + ": " + path);
+            }
+            // Layers are mapped separately, a single mapping is limited to 2 GB
+            long walkabilityEnd = HEADER_SIZE + 8L * Grid.wordCount(width, height);
+            long costSize = fileSize - walkabilityEnd;
+            if (costSize > Integer.MAX_VALUE) {
+                throw new IOException("Cost layer too large to map: " + path);
+            }
+            MappedByteBuffer walkability = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, walkabilityEnd - HEADER_SIZE);
+            MappedByteBuffer costs = costBytes == 0 ? null : channel.map(FileChannel.MapMode.READ_ONLY, walkabilityEnd, costSize);
+            return new MapFile(path, width, height, costBytes, walkability, costs);
+        }
+    }
+
+    /**
+     * Load a grid from either a binary map file or a text map in the benchmark format, chosen by extension.
+     *
+     * @param path File ending in .map for the text format, anything else for the binary format
+     * @return Loaded grid
+     * @throws IOException If the file cannot be read or parsed
+     */
+    public static Grid load(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".map")) {
+            return MovingAiFormat.readMap(path);
+        }
+        return open(path).toGrid();
+    }
+
+    /**
+     * Write a grid without a cost layer.
+     *
+     * @param path File to create or replace
+     * @param grid Grid to write
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path path, Grid grid) throws IOException {
+        write(path, grid, (TerrainCosts) null);
+    }
+
+    /**
+     * Write a grid with an optional cost layer, stored with as many bytes per cell as the layer uses in memory.
+     *
+     * @param path  File to create or replace
+     * @param grid  Grid to write
+     * @param costs Costs of the grid, or null for no cost layer
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path path, Grid grid, TerrainCosts costs) throws IOException {
+        if (costs != null) {
+            costs.checkGrid(grid);
+        }
+        int costBytes = costs != null ? costs.getBytesPerCell() : 0;
+        long size = fileSize(grid.getWidth(), grid.getHeight(), costBytes);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).put((byte) costBytes).put((byte) 0);
+            header.putInt(grid.getWidth()).putInt(grid.getHeight());
+            header.rewind();
+            channel.write(header, 0);
+            long walkabilityEnd = HEADER_SIZE + 8L * grid.words().length;
+            MappedByteBuffer walkability = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, walkabilityEnd - HEADER_SIZE);
+            walkability.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().put(grid.words());
+            walkability.force();
+            if (costs != null) {
+                MappedByteBuffer layer = channel.map(FileChannel.MapMode.READ_WRITE, walkabilityEnd, size - walkabilityEnd);
+                layer.order(ByteOrder.LITTLE_ENDIAN);
+                if (costs instanceof TerrainCosts.ByteCosts) {
+                    layer.put(((TerrainCosts.ByteCosts) costs).costs);
+                } else {
+                    layer.asShortBuffer().put(((TerrainCosts.ShortCosts) costs).costs);
+                }
+                layer.force();
+            }
+        }
+    }
+
+    private static long fileSize(int width, int height, int costBytes) {
+        return HEADER_SIZE + 8L * Grid.wordCount(width, height) + (long) costBytes * (width + 2) * (height + 2);
+    }
+
+    /**
+     * Copy the walkability layer into a new grid.
+     *
+     * @return Grid independent of the file
+     */
+    public Grid toGrid() {
+        long[] words = new long[Grid.wordCount(width, height)];
+        walkability.duplicate().order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(words);
+        return new Grid(width, height, words);
+    }
+
+    /**
+     * Read-only view on the cost layer, little-endian, indexed by cell index times {@link #getCostBytes()}.
+     *
+     * @return Cost layer, or null if the file has none
+     */
+    public ByteBuffer costLayer() {
+        return costs == null ? null : costs.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /*
+    GETTERS
+     */
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Bytes per cell of the cost layer, 0 if the file has none
+     */
+    public int getCostBytes() {
+        return costBytes;
+    }
+}
@@ -0,0 +1,73 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+/**
+ * Allowed moves between neighbouring cells, with the heuristic that fits them best.
+ */
+public enum MovementModel {
+    /**
+     * Straight steps only.
+     */
+    FOUR_CONNECTED(false, true, StandardHeuristic.MANHATTAN),
+    /**
+     * Straight and diagonal steps. Diagonal steps may squeeze between two blocked cells.
+     */
+    EIGHT_CONNECTED(true, true, StandardHeuristic.OCTILE),
+    /**
+     * Straight and diagonal steps, but a diagonal step is only allowed if both cells next to it are open.
+     */
+    NO_CORNER_CUTTING(true, false, StandardHeuristic.OCTILE);
+
+    private final boolean diagonal;
+    private final boolean cornerCutting;
+    private final Heuristic defaultHeuristic;
+    private final OrdinalDirection[] directions;
+
+    MovementModel(boolean diagonal, boolean cornerCutting, Heuristic defaultHeuristic) {
+        this.diagonal = diagonal;
+        this.cornerCutting = cornerCutting;
+        this.defaultHeuristic = defaultHeuristic;
+        this.directions = diagonal ? OrdinalDirection.values() : new OrdinalDirection[]{
+                OrdinalDirection.NORTH, OrdinalDirection.WEST, OrdinalDirection.SOUTH, OrdinalDirection.EAST
+        };
+    }
+
+    /**
+     * Check if a step from a cell in the given direction is allowed, assuming the target cell is walkable.
+     *
+     * @param grid      Grid being searched
+     * @param cell      Index of cell the step starts from
+     * @param direction Direction of step
+     * @return True if the step is allowed
+     */
+    boolean canStep(Grid grid, int cell, OrdinalDirection direction) {
+        if (cornerCutting || !direction.isDiagonal()) {
+            return true;
+        }
+        int[] offsets = grid.neighbourOffsets();
+        return grid.isWalkable(cell + offsets[direction.previous().ordinal()])
+                && grid.isWalkable(cell + offsets[direction.next().ordinal()]);
+    }
+
+    /**
+     * Directions to check around every expanded cell. Shared and must not be modified.
+     *
+     * @return Directions of allowed steps
+     */
+    OrdinalDirection[] directions() {
+        return directions;
+    }
+
+    public boolean allowsDiagonal() {
+        return diagonal;
+    }
+
+    public boolean allowsCornerCutting() {
+        return cornerCutting;
+    }
+
+    public Heuristic getDefaultHeuristic() {
+        return defaultHeuristic;
+    }
+}
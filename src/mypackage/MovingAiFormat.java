@@ -0,0 +1,104 @@
+package mypackage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader for the text map and scenario files of the common grid pathfinding benchmark sets.
+ * <p>
+ * A map file starts with the lines {@code type octile}, {@code height H}, {@code width W} and {@code map},
+ * followed by H rows of W characters. '.', 'G' and 'S' are passable, every other character is blocked.
+ * A scenario file starts with {@code version 1}, followed by one query per line.
+ */
+public final class MovingAiFormat {
+
+    private MovingAiFormat() {
+    }
+
+    /**
+     * Read a map file row by row into a grid.
+     *
+     * @param path Map file
+     * @return Grid with the obstacles of the map
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static Grid readMap(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            int width = -1;
+            int height = -1;
+            String line;
+            while ((line = reader.readLine()) != null && !line.trim().equals("map")) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length == 2 && parts[0].equals("width")) {
+                    width = Integer.parseInt(parts[1]);
+                } else if (parts.length == 2 && parts[0].equals("height")) {
+                    height = Integer.parseInt(parts[1]);
+                }
+            }
+            if (line == null || width <= 0 || height <= 0) {
+                throw new IOException("Missing map header: " + path);
+            }
+            Grid grid = new Grid(width, height);
+            for (int y = 0; y < height; y++) {
+                line = reader.readLine();
+                if (line == null || line.length() < width) {
+                    throw new IOException("Map row " + y + " is missing or shorter than " + width + ": " + path);
+                }
+                for (int x = 0; x < width; x++) {
+                    if (!isPassable(line.charAt(x))) {
+                        grid.setWalkable(x, y, false);
+                    }
+                }
+            }
+            return grid;
+        }
+    }
+
+    private static boolean isPassable(char terrain) {
+        return terrain == '.' || terrain == 'G' || terrain == 'S';
+    }
+
+    /**
+     * Read all queries of a scenario file.
+     *
+     * @param path Scenario file
+     * @return Queries in file order
+     * @throws IOException If the file cannot be read or is malformed
+     */
+    public static List<Scenario> readScenarios(Path path) throws IOException {
+        List<Scenario> scenarios = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line = reader.readLine();
+            if (line == null || !line.trim().startsWith("version")) {
+                throw new IOException("Missing scenario version line: " + path);
+            }
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                // Fields are tab separated, the map name may contain spaces
+                String[] parts = line.split("\t");
+                if (parts.length != 9) {
+                    throw new IOException("Expected 9 fields on line " + lineNumber + ": " + path);
+                }
+                try {
+                    scenarios.add(new Scenario(Integer.parseInt(parts[0].trim()), parts[1].trim(),
+                            Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()),
+                            Integer.parseInt(parts[4].trim()), Integer.parseInt(parts[5].trim()),
+                            Integer.parseInt(parts[6].trim()), Integer.parseInt(parts[7].trim()),
+                            Double.parseDouble(parts[8].trim())));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed number on line " + lineNumber + ": " + path, e);
+                }
+            }
+        }
+        return scenarios;
+    }
+}
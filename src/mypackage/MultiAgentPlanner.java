@@ -0,0 +1,353 @@
+package mypackage;
+
+import mypackage.AStarSolver.OrdinalDirection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Collision-free paths for many agents on one grid, by prioritized planning: each agent searches in space and
+ * time around the reservations of the agents planned before it, then reserves its own path and stays at its
+ * goal once it arrives. Agents may wait in place, and two agents never share a cell at the same time step or
+ * swap places in one step.
+ * <p>
+ * Time advances by one step per move or wait, so the paths minimize arrival time, not the 10/14 step costs
+ * of single-agent searches. Results hold the cell of the agent at every time step, repeated while it waits,
+ * and report the arrival time as cost.
+ * <p>
+ * With a pool, agents are planned in parallel against the reservations made so far and commit their paths
+ * one at a time. A path that conflicts with a reservation committed in the meantime is planned again,
+ * so priorities follow commit order instead of the order of the agents.
+ */
+public class MultiAgentPlanner {
+    private static final ThreadLocal<SpaceTimeSearch> SEARCHES = ThreadLocal.withInitial(SpaceTimeSearch::new);
+
+    private final Grid grid;
+    private final MovementModel movement;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create planner for 8-connected movement, planning agents in order on the calling thread.
+     *
+     * @param grid Grid the agents move on, must not change while planning
+     */
+    public MultiAgentPlanner(Grid grid) {
+        this(grid, MovementModel.EIGHT_CONNECTED, null);
+    }
+
+    /**
+     * @param grid     Grid the agents move on, must not change while planning
+     * @param movement Allowed moves
+     * @param pool     Pool to plan agents on in parallel, or null to plan them in order on the calling thread
+     */
+    public MultiAgentPlanner(Grid grid, MovementModel movement, ForkJoinPool pool) {
+        this.grid = grid;
+        this.movement = movement;
+        this.pool = pool;
+    }
+
+    /**
+     * Plan all agents, all starting at time step 0.
+     *
+     * @param agents Start and goal of every agent, no two agents may share a start or a goal
+     * @return Path per agent in the same order, an empty result for agents that found no collision-free path
+     */
+    public List<PathResult> planAll(List<PathQuery> agents) {
+        return planAll(agents, new ReservationTable(agents.size() * 64));
+    }
+
+    /**
+     * Plan all agents around the reservations already in a table, and add theirs to it. The agents get numbers
+     * from {@link ReservationTable#allocateAgentIds}, so the table can be shared by several calls.
+     *
+     * @param agents       Start and goal of every agent
+     * @param reservations Reservations of other agents, made under numbers allocated from the table
+     * @return Path per agent in the same order
+     */
+    public List<PathResult> planAll(List<PathQuery> agents, ReservationTable reservations) {
+        int firstId = reservations.allocateAgentIds(agents.size());
+        // Every agent stands on its start cell at time step 0, later steps are reserved with its path
+        synchronized (reservations) {
+            for (int i = 0; i < agents.size(); i++) {
+                reservations.reserve(agents.get(i).getStart(), 0, firstId + i);
+            }
+        }
+        PathResult[] results = new PathResult[agents.size()];
+        if (pool == null) {
+            for (int i = 0; i < agents.size(); i++) {
+                results[i] = planAgent(agents.get(i), firstId + i, reservations);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, agents.size()).parallel()
+                    .forEach(i -> results[i] = planAgent(agents.get(i), firstId + i, reservations))).join();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Plan one agent until its path can be committed without conflicts.
+     */
+    private PathResult planAgent(PathQuery agent, int id, ReservationTable reservations) {
+        int start = agent.getStart();
+        int goal = agent.getGoal();
+        SpaceTimeSearch search = SEARCHES.get();
+        search.startDistances(grid, movement, start, goal);
+        int freeSteps = search.distance(start);
+        if (freeSteps == Integer.MAX_VALUE) {
+            return PathResult.notFound(0);
+        }
+        while (true) {
+            // Waiting until all others parked and then walking the path of an empty grid takes this long,
+            // unless a parked agent blocks the way
+            int maxTime = reservations.getMaxTime() + 1 + freeSteps;
+            int[] path = search.find(grid, movement, start, goal, id, reservations, maxTime);
+            if (path == null) {
+                return PathResult.notFound(search.expanded);
+            }
+            synchronized (reservations) {
+                if (isFree(path, id, reservations)) {
+                    for (int t = 1; t < path.length; t++) {
+                        reservations.reserve(path[t], t, id);
+                    }
+                    reservations.park(goal, path.length - 1, id);
+                    return new PathResult(path, grid, path.length - 1, search.expanded);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check a path against the current reservations, which may have changed while it was planned.
+     */
+    private static boolean isFree(int[] path, int id, ReservationTable reservations) {
+        for (int t = 0; t + 1 < path.length; t++) {
+            if (!reservations.canStep(path[t], path[t + 1], t, id)) {
+                return false;
+            }
+        }
+        return reservations.canPark(path[path.length - 1], path.length - 1, id);
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+
+    /**
+     * A* over (cell, time step) states. All steps take one time step, so every path to a state has the same
+     * cost and the first visit of a state is final: no decrease-key, only a set of visited states.
+     * <p>
+     * The heuristic is the exact number of steps to the goal around obstacles, ignoring other agents. It comes
+     * from a backward search from the goal that is resumed whenever a cell it has not closed yet is asked for
+     * (Reverse Resumable A*), so only the cells near the corridor of the agent are ever visited.
+     */
+    private static final class SpaceTimeSearch {
+        private final SearchContext distances = new SearchContext();
+        private Grid grid;
+        private MovementModel movement;
+        private int targetX;
+        private int targetY;
+        private int[] stateCell = new int[1024];
+        private int[] stateTime = new int[1024];
+        private int[] stateParent = new int[1024];
+        private int stateCount;
+        // Binary heap of F cost in the high half and inverted state number in the low half, so among states of
+        // equal F cost the newest, usually the furthest along, comes first
+        private final LongHeap heap = new LongHeap();
+        // Visited (cell, time) keys, cleared by moving to a new generation
+        private long[] visitedKeys = new long[1 << 12];
+        private int[] visitedStamps = new int[1 << 12];
+        private int visitedCount;
+        private int generation;
+        private int expanded;
+
+        /**
+         * @return Cell per time step from start to arrival at the goal, or null if the agent cannot arrive
+         * by the time limit
+         */
+        private int[] find(Grid grid, MovementModel movement, int start, int goal, int agent,
+                           ReservationTable reservations, int maxTime) {
+            clear();
+            // The agent cannot arrive for good before others stop passing its goal
+            int earliestPark = reservations.getEarliestPark(goal, agent);
+            if (earliestPark == ReservationTable.NONE) {
+                return null;
+            }
+            int[] offsets = grid.neighbourOffsets();
+            OrdinalDirection[] directions = movement.directions();
+            visit(start, 0);
+            push(addState(start, 0, -1), Math.max(distance(start), earliestPark));
+            while (!heap.isEmpty()) {
+                int state = pop();
+                int cell = stateCell[state];
+                int time = stateTime[state];
+                if (cell == goal && reservations.canPark(cell, time, agent)) {
+                    return tracePath(state);
+                }
+                expanded++;
+                if (time >= maxTime) {
+                    continue;
+                }
+                // Waiting in place, then every allowed step
+                for (int d = -1; d < directions.length; d++) {
+                    int next = cell;
+                    if (d >= 0) {
+                        OrdinalDirection dir = directions[d];
+                        next = cell + offsets[dir.ordinal()];
+                        if (!grid.isWalkable(next) || !movement.canStep(grid, cell, dir)) {
+                            continue;
+                        }
+                    }
+                    if (!reservations.canStep(cell, next, time, agent) || !visit(next, time + 1)) {
+                        continue;
+                    }
+                    push(addState(next, time + 1, state), Math.max(time + 1 + distance(next), earliestPark));
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Start the backward search from the goal, guided towards the start of the agent.
+         */
+        private void startDistances(Grid grid, MovementModel movement, int start, int goal) {
+            this.grid = grid;
+            this.movement = movement;
+            this.targetX = grid.x(start);
+            this.targetY = grid.y(start);
+            distances.reset(grid.size());
+            distances.update(goal, 0, -1);
+            distances.push(goal, steps(goal));
+        }
+
+        /**
+         * Number of steps from a cell to the goal, resuming the backward search until it closes the cell.
+         * Closed cells keep their cost when the search goes on, because the heuristic is consistent.
+         *
+         * @return Steps to the goal, or Integer.MAX_VALUE if the goal cannot be reached from the cell
+         */
+        private int distance(int cell) {
+            int[] offsets = grid.neighbourOffsets();
+            while (!distances.isClosed(cell)) {
+                if (distances.isOpenEmpty()) {
+                    return Integer.MAX_VALUE;
+                }
+                int current = distances.pop();
+                distances.close(current);
+                int g = distances.getGCost(current) + 1;
+                for (OrdinalDirection dir : movement.directions()) {
+                    int next = current + offsets[dir.ordinal()];
+                    if (!grid.isWalkable(next) || distances.isClosed(next) || !movement.canStep(grid, current, dir)) {
+                        continue;
+                    }
+                    if (g < distances.getGCost(next)) {
+                        distances.update(next, g, current);
+                        distances.push(next, g + steps(next));
+                    }
+                }
+            }
+            return distances.getGCost(cell);
+        }
+
+        /**
+         * Lowest number of steps between a cell and the start of the agent on an empty grid.
+         */
+        private int steps(int cell) {
+            int dx = Math.abs(grid.x(cell) - targetX);
+            int dy = Math.abs(grid.y(cell) - targetY);
+            return movement.allowsDiagonal() ? Math.max(dx, dy) : dx + dy;
+        }
+
+        private int[] tracePath(int state) {
+            int[] path = new int[stateTime[state] + 1];
+            for (int s = state; s != -1; s = stateParent[s]) {
+                path[stateTime[s]] = stateCell[s];
+            }
+            return path;
+        }
+
+        private void clear() {
+            stateCount = 0;
+            heap.clear();
+            visitedCount = 0;
+            expanded = 0;
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                Arrays.fill(visitedStamps, 0);
+                generation = 1;
+            }
+        }
+
+        private int addState(int cell, int time, int parent) {
+            if (stateCount == stateCell.length) {
+                stateCell = Arrays.copyOf(stateCell, stateCount * 2);
+                stateTime = Arrays.copyOf(stateTime, stateCount * 2);
+                stateParent = Arrays.copyOf(stateParent, stateCount * 2);
+            }
+            stateCell[stateCount] = cell;
+            stateTime[stateCount] = time;
+            stateParent[stateCount] = parent;
+            return stateCount++;
+        }
+
+        /**
+         * Mark a state as visited.
+         *
+         * @return False if it was visited before
+         */
+        private boolean visit(int cell, int time) {
+            if (visitedCount * 2 >= visitedKeys.length) {
+                growVisited();
+            }
+            long key = (long) time << 32 | cell;
+            int mask = visitedKeys.length - 1;
+            for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+                if (visitedStamps[i] != generation) {
+                    visitedKeys[i] = key;
+                    visitedStamps[i] = generation;
+                    visitedCount++;
+                    return true;
+                }
+                if (visitedKeys[i] == key) {
+                    return false;
+                }
+            }
+        }
+
+        private void growVisited() {
+            long[] oldKeys = visitedKeys;
+            int[] oldStamps = visitedStamps;
+            visitedKeys = new long[oldKeys.length * 2];
+            visitedStamps = new int[oldKeys.length * 2];
+            int mask = visitedKeys.length - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldStamps[j] == generation) {
+                    int i = slot(oldKeys[j], mask);
+                    while (visitedStamps[i] == generation) {
+                        i = (i + 1) & mask;
+                    }
+                    visitedKeys[i] = oldKeys[j];
+                    visitedStamps[i] = generation;
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32) & mask;
+        }
+
+        private void push(int state, int f) {
+            heap.push((long) f << 32 | ~state & 0xFFFFFFFFL);
+        }
+
+        private int pop() {
+            return ~(int) heap.pop();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package mypackage;
+
+/**
+ * Priority queue of cell indices ordered by an int key (the F cost), supporting decrease-key.
+ * Every cell is in the queue at most once, so no stale entries are ever popped.
+ */
+public interface OpenList {
+    /**
+     * Make sure cell indices below the given capacity can be stored.
+     *
+     * @param capacity Number of cell indices
+     */
+    void ensureCapacity(int capacity);
+
+    /**
+     * Remove all cells from the queue.
+     */
+    void clear();
+
+    boolean isEmpty();
+
+    int size();
+
+    /**
+     * @param cell Cell index
+     * @return True if the cell is currently in the queue
+     */
+    boolean contains(int cell);
+
+    /**
+     * Insert a cell, or lower its key if it is already in the queue.
+     * Keys of queued cells are never raised.
+     *
+     * @param cell Cell index
+     * @param key  New key of the cell
+     */
+    void insertOrDecrease(int cell, int key);
+
+    /**
+     * Remove the cell with the lowest key.
+     *
+     * @return Cell index
+     */
+    int pop();
+
+    /**
+     * @return Lowest key in the queue, undefined if the queue is empty
+     */
+    int peekKey();
+}
@@ -0,0 +1,263 @@
+package mypackage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of path results in front of a path finder, for one grid.
+ * Entries are keyed by (grid version, start, goal) and evicted least recently used first. The cache is split into
+ * segments with their own lock, so threads looking up different queries rarely wait for each other.
+ * <p>
+ * When a cell of the grid changes, only entries the change can affect are evicted, all others are carried over
+ * to the new grid version:
+ * <ul>
+ * <li>a blocked cell only matters if it lies on or right next to the path, where it could block a diagonal step</li>
+ * <li>an opened cell only matters if a path through it could be cheaper, which means the octile distance from the
+ * start to the cell plus the one from the cell to the goal is below the cost of the path. This ellipse is the
+ * region an A* search for the query could have expanded. Queries without a path are evicted by any opened cell.</li>
+ * </ul>
+ * The octile distance never overestimates for any movement model or terrain costs of at least 1. Changes to
+ * terrain costs are not seen by the cache, call {@link #clear()} after them.
+ */
+public class PathCache implements PathFinder, GridListener {
+    private static final int SEGMENTS = 16;
+
+    private final PathFinder finder;
+    private final Grid grid;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Create cache and start listening to changes of the grid.
+     *
+     * @param finder   Path finder answering queries not in the cache
+     * @param grid     Grid the cache is for
+     * @param capacity Maximum number of cached paths
+     */
+    public PathCache(PathFinder finder, Grid grid, int capacity) {
+        if (capacity < SEGMENTS) {
+            throw new IllegalArgumentException("Capacity must be at least " + SEGMENTS + ": " + capacity);
+        }
+        this.finder = finder;
+        this.grid = grid;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(capacity / SEGMENTS);
+        }
+        grid.addListener(this);
+    }
+
+    /**
+     * Return the cached path for the query, or find and cache it.
+     * A cached result is returned as is, including the expanded count of the search that found it.
+     */
+    @Override
+    public PathResult solve(Grid grid, int start, int goal, SearchContext context) {
+        if (grid != this.grid) {
+            throw new IllegalArgumentException("Path cache was created for a different grid");
+        }
+        long key = (long) start << 32 | goal;
+        Segment segment = segments[segmentIndex(key)];
+        long version = grid.getVersion();
+        CachedPath cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null && cached.version == version) {
+            hits.increment();
+            context.reset(grid.size());
+            return context.finish(cached.result);
+        }
+        misses.increment();
+        PathResult result = finder.solve(grid, start, goal, context);
+        synchronized (segment) {
+            // Do not cache results of a search that raced with a change or was stopped by a limit
+            if (grid.getVersion() == version && !result.isStopped()) {
+                segment.put(key, new CachedPath(grid, start, goal, result, version));
+            }
+        }
+        return result;
+    }
+
+    private static int segmentIndex(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 60) & (SEGMENTS - 1);
+    }
+
+    /**
+     * Evict entries affected by a changed cell and move all others to the new grid version.
+     */
+    @Override
+    public void cellChanged(Grid grid, int cell, boolean walkable) {
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        long version = grid.getVersion();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                Iterator<CachedPath> iterator = segment.values().iterator();
+                while (iterator.hasNext()) {
+                    CachedPath cached = iterator.next();
+                    if (walkable ? cached.mayImproveThrough(x, y) : cached.mayBlock(x, y)) {
+                        iterator.remove();
+                        invalidations.increment();
+                    } else {
+                        cached.version = version;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all entries, for example after terrain costs changed.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * Stop listening to the grid. The cache keeps answering, but misses on every entry after the next change.
+     */
+    public void close() {
+        grid.removeListener(this);
+    }
+
+    /*
+    STATISTICS
+     */
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return Number of entries removed to stay within capacity
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return Number of entries removed because a changed cell could affect them
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    /**
+     * @return Number of cached paths
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Least recently used map of one segment, accessed while holding its lock.
+     */
+    private final class Segment extends LinkedHashMap<Long, CachedPath> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedPath> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Cached result with the regions a changed cell has to touch to affect it.
+     */
+    private static final class CachedPath {
+        private final PathResult result;
+        private final int startX;
+        private final int startY;
+        private final int goalX;
+        private final int goalY;
+        // Bounding box of the path cells
+        private final int minX;
+        private final int minY;
+        private final int maxX;
+        private final int maxY;
+        private long version;
+
+        private CachedPath(Grid grid, int start, int goal, PathResult result, long version) {
+            this.result = result;
+            this.startX = grid.x(start);
+            this.startY = grid.y(start);
+            this.goalX = grid.x(goal);
+            this.goalY = grid.y(goal);
+            this.version = version;
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE;
+            int maxY = Integer.MIN_VALUE;
+            for (int i = 0; i < result.getLength(); i++) {
+                minX = Math.min(minX, result.getX(i));
+                minY = Math.min(minY, result.getY(i));
+                maxX = Math.max(maxX, result.getX(i));
+                maxY = Math.max(maxY, result.getY(i));
+            }
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        /**
+         * @return True if a blocked cell at the position is on the path or next to it
+         */
+        private boolean mayBlock(int x, int y) {
+            if (!result.isFound() || x < minX - 1 || x > maxX + 1 || y < minY - 1 || y > maxY + 1) {
+                return false;
+            }
+            for (int i = 0; i < result.getLength(); i++) {
+                if (Math.abs(result.getX(i) - x) <= 1 && Math.abs(result.getY(i) - y) <= 1) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return True if a path through an opened cell at the position could be cheaper than the cached one
+         */
+        private boolean mayImproveThrough(int x, int y) {
+            if (!result.isFound()) {
+                return true;
+            }
+            // Without corner cutting an opened cell also allows a diagonal step beside it, between two of its
+            // straight neighbours, so allow for two straight steps less than a path through the cell itself
+            int bound = StandardHeuristic.OCTILE.estimate(startX, startY, x, y)
+                    + StandardHeuristic.OCTILE.estimate(x, y, goalX, goalY) - 20;
+            return bound < result.getCost();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package mypackage;
+
+/**
+ * Search algorithm finding a path between two cells of a grid.
+ * Implementations hold no per-query state, so a single instance can be shared by many threads.
+ */
+public interface PathFinder {
+    /**
+     * Find a path between two cells on a grid, reusing the given search context.
+     * Any number of threads can search the same grid at once, as long as each uses its own context.
+     *
+     * @param grid    Grid to search on
+     * @param start   Index of start cell
+     * @param goal    Index of goal cell
+     * @param context Search state of the calling thread, reset before searching
+     * @return Path from start to goal, or an empty result if there is none
+     */
+    PathResult solve(Grid grid, int start, int goal, SearchContext context);
+
+    /**
+     * Find a path between two cells on a grid without touching any shared state.
+     * A new search context is created for the query.
+     *
+     * @param grid  Grid to search on
+     * @param start Index of start cell
+     * @param goal  Index of goal cell
+     * @return Path from start to goal, or an empty result if there is none
+     */
+    default PathResult solve(Grid grid, int start, int goal) {
+        return solve(grid, start, goal, new SearchContext(grid.size()));
+    }
+}
@@ -0,0 +1,34 @@
+package mypackage;
+
+/**
+ * Start and goal cell of a single path request.
+ */
+public class PathQuery {
+    private final int start;
+    private final int goal;
+
+    /**
+     * @param start Index of start cell
+     * @param goal  Index of goal cell
+     */
+    public PathQuery(int start, int goal) {
+        this.start = start;
+        this.goal = goal;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getGoal() {
+        return goal;
+    }
+
+    @Override
+    public String toString() {
+        return "PathQuery{" +
+                "start=" + start +
+                ", goal=" + goal +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+package mypackage;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event per search. Set {@link #OBSERVER} as the search observer and enable
+ * the event "mypackage.PathQuery" in the recording settings.
+ */
+@Name("mypackage.PathQuery")
+@Label("Path Query")
+@Category("AStar")
+@Description("Statistics of a single path search")
+public class PathQueryEvent extends Event {
+    /**
+     * Observer committing one event per search, skipped cheaply when the event is not enabled.
+     */
+    public static final SearchObserver OBSERVER = stats -> {
+        PathQueryEvent event = new PathQueryEvent();
+        if (event.isEnabled()) {
+            event.status = stats.getStatus().name();
+            event.expanded = stats.getExpanded();
+            event.pushed = stats.getPushed();
+            event.decreased = stats.getDecreased();
+            event.peakOpen = stats.getPeakOpen();
+            event.pathLength = stats.getPathLength();
+            event.pathCost = stats.getPathCost();
+            event.wallTime = stats.getWallTimeNanos();
+            event.commit();
+        }
+    };
+
+    @Label("Status")
+    String status;
+
+    @Label("Expanded")
+    int expanded;
+
+    @Label("Pushed")
+    int pushed;
+
+    @Label("Decrease-Key Updates")
+    int decreased;
+
+    @Label("Peak Open List Size")
+    int peakOpen;
+
+    @Label("Path Length")
+    int pathLength;
+
+    @Label("Path Cost")
+    int pathCost;
+
+    @Label("Wall Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long wallTime;
+}
@@ -0,0 +1,150 @@
+package mypackage;
+
+public class PathResult {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] cells;
+    private final Grid grid;
+    private final int cost;
+    private final int expanded;
+    private final Status status;
+
+    /**
+     * @param cells    Cell indices of the path, ordered from start to goal
+     * @param grid     Grid the indices refer to
+     * @param cost     Total cost of the path
+     * @param expanded Number of cells expanded during the search
+     */
+    public PathResult(int[] cells, Grid grid, int cost, int expanded) {
+        this(cells, grid, cost, expanded, cells.length > 0 ? Status.FOUND : Status.NO_PATH);
+    }
+
+    /**
+     * @param cells    Cell indices of the path, ordered from start to its last cell
+     * @param grid     Grid the indices refer to
+     * @param cost     Total cost of the path
+     * @param expanded Number of cells expanded during the search
+     * @param status   How the search ended
+     */
+    public PathResult(int[] cells, Grid grid, int cost, int expanded, Status status) {
+        this.cells = cells;
+        this.grid = grid;
+        this.cost = cost;
+        this.expanded = expanded;
+        this.status = status;
+    }
+
+    /**
+     * Create a result for a search that did not find a path.
+     *
+     * @param expanded Number of cells expanded during the search
+     * @return Empty result
+     */
+    public static PathResult notFound(int expanded) {
+        return new PathResult(EMPTY, null, -1, expanded);
+    }
+
+    /**
+     * Create an empty result for a search that hit a limit before it reached any cell worth returning.
+     *
+     * @param status   Limit that stopped the search
+     * @param expanded Number of cells expanded during the search
+     * @return Empty result
+     */
+    public static PathResult stopped(Status status, int expanded) {
+        return new PathResult(EMPTY, null, -1, expanded, status);
+    }
+
+    /**
+     * @return True if the result holds a complete path from start to goal
+     */
+    public boolean isFound() {
+        return status == Status.FOUND;
+    }
+
+    /**
+     * @return True if the search was stopped by a limit, whether or not it returned a partial path
+     */
+    public boolean isStopped() {
+        return status.isLimit();
+    }
+
+    /**
+     * A partial path leads from the start to the reached cell closest to the goal by the heuristic, and can be
+     * walked while the query is retried.
+     *
+     * @return True if the search was stopped and the cells lead towards the goal
+     */
+    public boolean isPartial() {
+        return status.isLimit() && cells.length > 0;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return Number of cells on the path, including start and goal
+     */
+    public int getLength() {
+        return cells.length;
+    }
+
+    public int getCell(int i) {
+        return cells[i];
+    }
+
+    public int getX(int i) {
+        return grid.x(cells[i]);
+    }
+
+    public int getY(int i) {
+        return grid.y(cells[i]);
+    }
+
+    /**
+     * @return Copy of the cell indices on the path
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * @return Total path cost, or -1 if no path was found. For partial paths the cost up to their last cell.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return "PathResult{" +
+                "status=" + status +
+                ", length=" + cells.length +
+                ", cost=" + cost +
+                ", expanded=" + expanded +
+                '}';
+    }
+
+    /**
+     * How a search ended.
+     */
+    public enum Status {
+        FOUND,
+        NO_PATH,
+        /** More cells would have to be expanded than the budget of the search context allows */
+        BUDGET_EXHAUSTED,
+        /** The timeout of the search context passed */
+        DEADLINE_EXCEEDED,
+        /** The search was cancelled or its thread interrupted */
+        CANCELLED;
+
+        public boolean isLimit() {
+            return this != FOUND && this != NO_PATH;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package mypackage;
+
+import java.util.Arrays;
+
+/**
+ * Turns cell-by-cell paths into short lists of waypoints for movement systems and the wire.
+ * <p>
+ * {@link #turnPoints} keeps only the start, the goal and the cells where the direction of the path changes,
+ * without changing the route. {@link #stringPull} also drops turns that can be cut: from each waypoint it goes
+ * on to the furthest later turn point it has line of sight to. Line of sight follows the Bresenham line between
+ * the two cells over the walkability bits of the grid, so walking from waypoint to waypoint along that line is
+ * a valid path for diagonal movement models and never costs more than the original. With 4-connected movement
+ * the line may step diagonally, but only where both cells beside the step are open.
+ * <p>
+ * Both pass waypoints to a consumer as they are found, nothing is collected unless {@link #waypoints} is used.
+ */
+public class PathSmoother {
+    private final Grid grid;
+    private final MovementModel movement;
+
+    /**
+     * @param grid     Grid the paths were found on
+     * @param movement Movement model the paths were found with
+     */
+    public PathSmoother(Grid grid, MovementModel movement) {
+        this.grid = grid;
+        this.movement = movement;
+    }
+
+    /**
+     * Receives waypoints in path order.
+     */
+    @FunctionalInterface
+    public interface WaypointConsumer {
+        void accept(int x, int y);
+    }
+
+    /**
+     * Stream the start, the goal and every cell where the path turns. Waiting steps count as a direction,
+     * so the cell where an agent waits is kept.
+     *
+     * @param path     Path to compress, nothing is streamed if it is empty
+     * @param consumer Consumer of waypoints
+     */
+    public void turnPoints(PathResult path, WaypointConsumer consumer) {
+        int length = path.getLength();
+        if (length == 0) {
+            return;
+        }
+        consumer.accept(path.getX(0), path.getY(0));
+        for (int i = 1; i < length - 1; i++) {
+            if (isTurn(path, i)) {
+                consumer.accept(path.getX(i), path.getY(i));
+            }
+        }
+        if (length > 1) {
+            consumer.accept(path.getX(length - 1), path.getY(length - 1));
+        }
+    }
+
+    /**
+     * Stream a smoothed path: from every waypoint, skip ahead to the furthest turn point in line of sight.
+     * Paths with waiting steps should use {@link #turnPoints}, this would drop the waits.
+     *
+     * @param path     Path to smooth, nothing is streamed if it is empty
+     * @param consumer Consumer of waypoints
+     */
+    public void stringPull(PathResult path, WaypointConsumer consumer) {
+        int length = path.getLength();
+        if (length == 0) {
+            return;
+        }
+        int anchor = path.getCell(0);
+        consumer.accept(grid.x(anchor), grid.y(anchor));
+        // Last turn point known to be visible from the anchor
+        int visible = anchor;
+        for (int i = 1; i < length; i++) {
+            if (i < length - 1 && !isTurn(path, i)) {
+                continue;
+            }
+            int candidate = path.getCell(i);
+            if (!hasLineOfSight(anchor, candidate)) {
+                consumer.accept(grid.x(visible), grid.y(visible));
+                anchor = visible;
+            }
+            visible = candidate;
+        }
+        if (visible != anchor) {
+            consumer.accept(grid.x(visible), grid.y(visible));
+        }
+    }
+
+    /**
+     * Collect the waypoints of a path.
+     *
+     * @param path   Path to compress
+     * @param smooth True to string pull, false to keep the route and only drop straight runs
+     * @return Cell indices of the waypoints
+     */
+    public int[] waypoints(PathResult path, boolean smooth) {
+        int[][] cells = {new int[16]};
+        int[] count = {0};
+        WaypointConsumer collector = (x, y) -> {
+            if (count[0] == cells[0].length) {
+                cells[0] = Arrays.copyOf(cells[0], count[0] * 2);
+            }
+            cells[0][count[0]++] = grid.index(x, y);
+        };
+        if (smooth) {
+            stringPull(path, collector);
+        } else {
+            turnPoints(path, collector);
+        }
+        return Arrays.copyOf(cells[0], count[0]);
+    }
+
+    /**
+     * Check if the Bresenham line between two cells is a valid path: every cell on it is walkable, and
+     * diagonal steps do not cut corners unless the movement model allows diagonal steps that cut corners.
+     *
+     * @param from Index of first cell
+     * @param to   Index of last cell
+     * @return True if the line is clear
+     */
+    public boolean hasLineOfSight(int from, int to) {
+        int x = grid.x(from);
+        int y = grid.y(from);
+        int x1 = grid.x(to);
+        int y1 = grid.y(to);
+        int dx = Math.abs(x1 - x);
+        int dy = Math.abs(y1 - y);
+        int sx = x < x1 ? 1 : -1;
+        int sy = y < y1 ? 1 : -1;
+        boolean checkCorners = !movement.allowsDiagonal() || !movement.allowsCornerCutting();
+        int error = dx - dy;
+        int cell = from;
+        int stride = grid.getStride();
+        while (cell != to) {
+            int doubled = 2 * error;
+            boolean stepX = doubled > -dy;
+            boolean stepY = doubled < dx;
+            if (stepX && stepY && checkCorners
+                    && (!grid.isWalkable(cell + sx) || !grid.isWalkable(cell + sy * stride))) {
+                return false;
+            }
+            if (stepX) {
+                error -= dy;
+                cell += sx;
+            }
+            if (stepY) {
+                error += dx;
+                cell += sy * stride;
+            }
+            if (!grid.isWalkable(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the step into cell i has a different direction than the step out of it
+     */
+    private static boolean isTurn(PathResult path, int i) {
+        int in = path.getCell(i) - path.getCell(i - 1);
+        int out = path.getCell(i + 1) - path.getCell(i);
+        return in != out;
+    }
+
+    public Grid getGrid() {
+        return grid;
+    }
+
+    public MovementModel getMovement() {
+        return movement;
+    }
+}
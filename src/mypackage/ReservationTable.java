@@ -0,0 +1,258 @@
+package mypackage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Space-time reservations of agents moving over one grid: which agent occupies a cell at a time step,
+ * and at which cells agents stay forever once they arrived.
+ * <p>
+ * Reservations are kept in an open-addressing hash table keyed by time step and cell index, a long key and a
+ * long value per entry, so memory grows with the number of reservations and not with grid size times time.
+ * Reads never lock and can run on any number of threads while another thread writes. Writes are serialized
+ * by the lock of the table, callers that check and then reserve hold it across both.
+ * <p>
+ * Agents are identified by non-negative numbers. Callers sharing a table take them from
+ * {@link #allocateAgentIds}, so that numbers of different callers never collide.
+ */
+public class ReservationTable {
+    /**
+     * Holder of a cell that is not reserved.
+     */
+    public static final int NONE = -1;
+    private static final long EMPTY = 0;
+    // Time step under which parked agents are stored, with the time they arrive in the value
+    private static final int PARKED = Integer.MAX_VALUE;
+
+    // Replaced as a whole on growth, so readers always see a consistent table
+    private volatile Slots slots;
+    private int size;
+    private volatile int maxTime;
+    private int nextAgentId;
+
+    /**
+     * @param expectedReservations Number of reservations to allocate for up front
+     */
+    public ReservationTable(int expectedReservations) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedReservations * 2 - 1)) << 1;
+        slots = new Slots(capacity);
+    }
+
+    /*
+    QUERIES
+     */
+
+    /**
+     * @param cell Cell index
+     * @param time Time step
+     * @return Agent occupying the cell at the time step, including agents parked there, or {@link #NONE}
+     */
+    public int getHolder(int cell, int time) {
+        Slots current = slots;
+        long value = current.get(key(cell, time));
+        if (value != EMPTY) {
+            return (int) value - 1;
+        }
+        long parked = current.get(key(cell, PARKED));
+        if (parked != EMPTY && (int) (parked >>> 32) <= time) {
+            return (int) parked - 1;
+        }
+        return NONE;
+    }
+
+    /**
+     * @return True if the cell is free for the agent at the time step
+     */
+    public boolean isFree(int cell, int time, int agent) {
+        int holder = getHolder(cell, time);
+        return holder == NONE || holder == agent;
+    }
+
+    /**
+     * Check if an agent can step between two cells from one time step to the next, without entering an
+     * occupied cell or swapping places with another agent.
+     *
+     * @param from  Cell the step starts at
+     * @param to    Cell the step ends at, may equal from for waiting
+     * @param time  Time step the step starts at
+     * @param agent Agent stepping
+     * @return True if the step is free
+     */
+    public boolean canStep(int from, int to, int time, int agent) {
+        if (!isFree(to, time + 1, agent)) {
+            return false;
+        }
+        if (from == to) {
+            return true;
+        }
+        int other = getHolder(to, time);
+        return other == NONE || other == agent || getHolder(from, time + 1) != other;
+    }
+
+    /**
+     * Check if an agent can stay at a cell forever from a time step on.
+     *
+     * @return True if no other agent enters the cell at or after the time step
+     */
+    public boolean canPark(int cell, int time, int agent) {
+        int earliest = getEarliestPark(cell, agent);
+        return earliest != NONE && time >= earliest;
+    }
+
+    /**
+     * @return First time step from which no other agent enters the cell, or {@link #NONE} if another agent
+     * parks there
+     */
+    public int getEarliestPark(int cell, int agent) {
+        long parked = slots.get(key(cell, PARKED));
+        if (parked != EMPTY && (int) parked - 1 != agent) {
+            return NONE;
+        }
+        for (int t = maxTime; t >= 0; t--) {
+            if (!isFree(cell, t, agent)) {
+                return t + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Highest time step of any reservation or parked arrival
+     */
+    public int getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * @return Number of reservations, counting each parked agent once
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /*
+    UPDATES
+     */
+
+    /**
+     * Hand out a range of agent numbers not used by earlier callers of this table, so agents planned in
+     * different batches never take each other's reservations for their own.
+     *
+     * @param count Number of agents
+     * @return First number of the range, the agents are numbered from it up to {@code first + count - 1}
+     */
+    public synchronized int allocateAgentIds(int count) {
+        if (count < 0 || nextAgentId > Integer.MAX_VALUE - 1 - count) {
+            throw new IllegalArgumentException("Cannot allocate " + count + " agent ids after " + nextAgentId);
+        }
+        int first = nextAgentId;
+        nextAgentId += count;
+        return first;
+    }
+
+    /**
+     * Reserve a cell at a time step, replacing any earlier reservation of it.
+     * The caller holds the lock of the table if it checked the cell first.
+     */
+    public synchronized void reserve(int cell, int time, int agent) {
+        if (time < 0 || time >= PARKED) {
+            throw new IllegalArgumentException("Invalid time step: " + time);
+        }
+        put(key(cell, time), agent + 1L);
+        if (time > maxTime) {
+            maxTime = time;
+        }
+    }
+
+    /**
+     * Let an agent stay at a cell forever from a time step on.
+     */
+    public synchronized void park(int cell, int time, int agent) {
+        put(key(cell, PARKED), (long) time << 32 | agent + 1L);
+        if (time > maxTime) {
+            maxTime = time;
+        }
+    }
+
+    /**
+     * Remove all reservations and start numbering agents from 0 again.
+     */
+    public synchronized void clear() {
+        slots = new Slots(slots.keys.length());
+        size = 0;
+        maxTime = 0;
+        nextAgentId = 0;
+    }
+
+    private void put(long key, long value) {
+        if (!slots.put(key, value)) {
+            return;
+        }
+        if (++size * 4L > slots.keys.length() * 3L) {
+            // Copy into a new table and publish it, readers keep using the old one until then
+            Slots old = slots;
+            Slots grown = new Slots(old.keys.length() * 2);
+            for (int i = 0; i < old.keys.length(); i++) {
+                long oldKey = old.keys.get(i);
+                if (oldKey != EMPTY) {
+                    grown.put(oldKey, old.values.get(i));
+                }
+            }
+            slots = grown;
+        }
+    }
+
+    /**
+     * Key of a cell at a time step. Cell 0 lies in the blocked border of every grid, so no key is EMPTY.
+     */
+    private static long key(int cell, int time) {
+        return (long) time << 32 | cell;
+    }
+
+    private static final class Slots {
+        private final AtomicLongArray keys;
+        private final AtomicLongArray values;
+        private final int mask;
+
+        private Slots(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+
+        private long get(long key) {
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long found = keys.get(i);
+                if (found == key) {
+                    return values.get(i);
+                }
+                if (found == EMPTY) {
+                    return EMPTY;
+                }
+            }
+        }
+
+        /**
+         * @return True if the key was new
+         */
+        private boolean put(long key, long value) {
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                long found = keys.get(i);
+                if (found == key) {
+                    values.set(i, value);
+                    return false;
+                }
+                if (found == EMPTY) {
+                    // The value is written first, a reader that sees the key also sees its value
+                    values.set(i, value);
+                    keys.set(i, key);
+                    return true;
+                }
+            }
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32) & mask;
+        }
+    }
+}
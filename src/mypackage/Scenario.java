@@ -0,0 +1,83 @@
+package mypackage;
+
+/**
+ * One query of a benchmark scenario file, with the optimal path length found by the authors of the set.
+ * Lengths count straight steps as 1 and diagonal steps as the square root of 2.
+ */
+public class Scenario {
+    private final int bucket;
+    private final String mapName;
+    private final int mapWidth;
+    private final int mapHeight;
+    private final int startX;
+    private final int startY;
+    private final int goalX;
+    private final int goalY;
+    private final double optimalLength;
+
+    public Scenario(int bucket, String mapName, int mapWidth, int mapHeight,
+                    int startX, int startY, int goalX, int goalY, double optimalLength) {
+        this.bucket = bucket;
+        this.mapName = mapName;
+        this.mapWidth = mapWidth;
+        this.mapHeight = mapHeight;
+        this.startX = startX;
+        this.startY = startY;
+        this.goalX = goalX;
+        this.goalY = goalY;
+        this.optimalLength = optimalLength;
+    }
+
+    /**
+     * @param grid Grid of the map
+     * @return Query for this scenario on the grid
+     */
+    public PathQuery toQuery(Grid grid) {
+        return new PathQuery(grid.index(startX, startY), grid.index(goalX, goalY));
+    }
+
+    /*
+    GETTERS
+     */
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public String getMapName() {
+        return mapName;
+    }
+
+    public int getMapWidth() {
+        return mapWidth;
+    }
+
+    public int getMapHeight() {
+        return mapHeight;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public int getGoalX() {
+        return goalX;
+    }
+
+    public int getGoalY() {
+        return goalY;
+    }
+
+    public double getOptimalLength() {
+        return optimalLength;
+    }
+
+    @Override
+    public String toString() {
+        return mapName + " (" + startX + "," + startY + ") -> (" + goalX + "," + goalY + ") " + optimalLength;
+    }
+}
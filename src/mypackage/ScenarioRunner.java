@@ -0,0 +1,520 @@
+package mypackage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs benchmark scenario files from the command line, without the GUI:
+ * <pre>
+ * java -jar AStar.jar run [options] scenario.scen...
+ * </pre>
+ * Every query is solved with the chosen solver and thread count and written as one CSV row or JSON object with
+ * its status, cost, length, reference length, expanded cells and wall time. A summary goes to standard error.
+ * <p>
+ * Paths are checked against the optimal lengths of the scenarios. Costs count diagonal steps as 1.4 where the
+ * references count the square root of 2, so the cost of an optimal path is at most ten times the reference
+ * length and a path is accepted if it stays within that (plus the tolerance) and is not shorter than the
+ * reference. The exit status is 1 if any query fails the check, so scripts can catch regressions.
+ */
+public final class ScenarioRunner {
+    private static final ThreadLocal<SearchContext> CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+    // Scenario files print lengths with 8 decimals
+    private static final double EPSILON = 1e-4;
+    private static final int MAX_REPORTED_FAILURES = 10;
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar AStar.jar run [options] <scenario file>...",
+            "  --solver <name>      astar, landmarks, bidirectional, jps, jps-plus or hpa (default astar), jps and",
+            "                       jps-plus cut corners and fail the check against the common benchmark sets",
+            "  --movement <name>    four-connected, eight-connected or no-corner-cutting (default no-corner-cutting,",
+            "                       which the reference lengths of the common benchmark sets assume)",
+            "  --threads <n>        Threads solving queries in parallel (default 1)",
+            "  --format <name>      csv or json (default csv)",
+            "  --output <file>      File to write results to (default standard output)",
+            "  --maps <dir>         Directory of the map files (default directory of each scenario file)",
+            "  --warmup <n>         Times to solve all queries of a map before measuring (default 0)",
+            "  --tolerance <x>      Relative cost above the reference to accept, e.g. 0.1 for hpa (default 0)");
+
+    /**
+     * Solvers that can be run, created per map since some precompute tables for the grid.
+     */
+    enum Solver {
+        ASTAR, LANDMARKS, BIDIRECTIONAL, JPS, JPS_PLUS, HPA;
+
+        PathFinder create(Grid grid, MovementModel movement) {
+            switch (this) {
+                case ASTAR:
+                    return new AStarSolver(movement);
+                case LANDMARKS:
+                    return new AStarSolver(movement, LandmarkTable.build(grid, movement, 8).heuristic());
+                case BIDIRECTIONAL:
+                    return new BidirectionalSolver(movement);
+                case JPS:
+                    return new JumpPointSolver();
+                case JPS_PLUS:
+                    return new JumpPointSolver(JumpPointTable.build(grid));
+                case HPA:
+                    return new HierarchicalPathFinder(grid, movement, 32);
+                default:
+                    throw new IllegalStateException("Unknown solver: " + this);
+            }
+        }
+
+        /**
+         * @return True if the solver only supports {@link MovementModel#EIGHT_CONNECTED}
+         */
+        boolean isEightConnectedOnly() {
+            return this == JPS || this == JPS_PLUS;
+        }
+    }
+
+    /**
+     * Outcome of comparing a path with the reference length of its scenario.
+     */
+    enum Check {
+        OK,
+        /** Costs more than the reference allows */
+        SUBOPTIMAL,
+        /** Shorter than the reference, the movement model does not match the one of the scenarios */
+        SHORTER,
+        /** No complete path, although the scenario has one */
+        MISSING;
+    }
+
+    enum Format {
+        CSV, JSON
+    }
+
+    private Solver solver = Solver.ASTAR;
+    private MovementModel movement = MovementModel.NO_CORNER_CUTTING;
+    private int threads = 1;
+    private Format format = Format.CSV;
+    private Path output;
+    private Path mapDirectory;
+    private int warmup;
+    private double tolerance;
+    private final List<Path> scenarioFiles = new ArrayList<>();
+    private boolean firstRow = true;
+
+    private ScenarioRunner() {
+    }
+
+    /**
+     * Exits with status 0 if all queries passed the check, 1 if any failed and 2 for invalid arguments or files.
+     *
+     * @param args Options and scenario files, see {@link #USAGE}
+     */
+    public static void main(String[] args) {
+        ScenarioRunner runner;
+        try {
+            runner = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            System.exit(runner.run() > 0 ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println("Cannot run scenarios: " + e);
+            System.exit(2);
+        }
+    }
+
+    static ScenarioRunner parse(String[] args) {
+        ScenarioRunner runner = new ScenarioRunner();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                runner.scenarioFiles.add(Paths.get(arg));
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+            String value = args[++i];
+            switch (arg) {
+                case "--solver":
+                    runner.solver = parseEnum(Solver.class, arg, value);
+                    break;
+                case "--movement":
+                    runner.movement = parseEnum(MovementModel.class, arg, value);
+                    break;
+                case "--threads":
+                    runner.threads = (int) parseNumber(arg, value);
+                    break;
+                case "--format":
+                    runner.format = parseEnum(Format.class, arg, value);
+                    break;
+                case "--output":
+                    runner.output = Paths.get(value);
+                    break;
+                case "--maps":
+                    runner.mapDirectory = Paths.get(value);
+                    break;
+                case "--warmup":
+                    runner.warmup = (int) parseNumber(arg, value);
+                    break;
+                case "--tolerance":
+                    runner.tolerance = parseNumber(arg, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (runner.scenarioFiles.isEmpty()) {
+            throw new IllegalArgumentException("No scenario files given");
+        }
+        if (runner.threads < 1 || runner.warmup < 0 || runner.tolerance < 0) {
+            throw new IllegalArgumentException("Threads must be positive, warmup and tolerance not negative");
+        }
+        if (runner.solver.isEightConnectedOnly() && runner.movement != MovementModel.EIGHT_CONNECTED) {
+            throw new IllegalArgumentException(runner.solver + " only supports --movement eight-connected");
+        }
+        return runner;
+    }
+
+    /**
+     * Parse an enum constant written in lower case with dashes, like {@code no-corner-cutting}.
+     */
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String option, String value) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value for " + option + ": " + value);
+        }
+    }
+
+    private static double parseNumber(String option, String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for " + option + ": " + value);
+        }
+    }
+
+    /**
+     * Solve all scenario files and write the results.
+     *
+     * @return Number of queries that failed the check
+     */
+    int run() throws IOException {
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        Writer out = output != null
+                ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+                : new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        Summary summary = new Summary();
+        try {
+            writeHeader(out);
+            for (Path file : scenarioFiles) {
+                runFile(file, pool, out, summary);
+            }
+            writeFooter(out);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+            if (output != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+        summary.print();
+        return summary.failures;
+    }
+
+    /**
+     * Solve the queries of one scenario file map by map, in file order.
+     */
+    private void runFile(Path file, ForkJoinPool pool, Writer out, Summary summary) throws IOException {
+        Map<String, List<Scenario>> byMap = new LinkedHashMap<>();
+        for (Scenario scenario : MovingAiFormat.readScenarios(file)) {
+            byMap.computeIfAbsent(scenario.getMapName(), name -> new ArrayList<>()).add(scenario);
+        }
+        Map<Path, Grid> grids = new HashMap<>();
+        for (Map.Entry<String, List<Scenario>> entry : byMap.entrySet()) {
+            Path mapPath = resolveMap(file, entry.getKey());
+            Grid grid = grids.get(mapPath);
+            if (grid == null) {
+                grid = MapFile.load(mapPath);
+                grids.put(mapPath, grid);
+            }
+            List<Scenario> scenarios = entry.getValue();
+            Scenario first = scenarios.get(0);
+            if (grid.getWidth() != first.getMapWidth() || grid.getHeight() != first.getMapHeight()) {
+                throw new IOException("Map " + mapPath + " is " + grid.getWidth() + "x" + grid.getHeight()
+                        + ", scenarios expect " + first.getMapWidth() + "x" + first.getMapHeight());
+            }
+            long setupStart = System.nanoTime();
+            PathFinder finder = solver.create(grid, movement);
+            summary.setupNanos += System.nanoTime() - setupStart;
+
+            List<PathQuery> queries = new ArrayList<>(scenarios.size());
+            for (Scenario scenario : scenarios) {
+                queries.add(scenario.toQuery(grid));
+            }
+            PathResult[] results = new PathResult[queries.size()];
+            long[] nanos = new long[queries.size()];
+            for (int round = 0; round <= warmup; round++) {
+                solveAll(finder, grid, queries, results, nanos, pool);
+            }
+            for (int i = 0; i < scenarios.size(); i++) {
+                Scenario scenario = scenarios.get(i);
+                double length = length(results[i]);
+                Check check = check(scenario, results[i], length);
+                summary.add(file, scenario, results[i], nanos[i], check);
+                writeRow(out, file, scenario, results[i], length, nanos[i], check);
+            }
+        }
+    }
+
+    /**
+     * Find a map next to the scenario file or in the map directory, by its name in the scenario file or,
+     * since sets often store maps in a different directory layout, by its file name alone.
+     */
+    private Path resolveMap(Path scenarioFile, String mapName) throws IOException {
+        Path directory = mapDirectory;
+        if (directory == null) {
+            directory = scenarioFile.toAbsolutePath().getParent();
+        }
+        Path path = directory.resolve(mapName);
+        if (Files.isRegularFile(path)) {
+            return path;
+        }
+        Path byFileName = directory.resolve(Paths.get(mapName).getFileName());
+        if (Files.isRegularFile(byFileName)) {
+            return byFileName;
+        }
+        throw new IOException("Map " + mapName + " of " + scenarioFile + " not found in " + directory);
+    }
+
+    /**
+     * Solve all queries of a map, timing each query on the thread that solves it.
+     */
+    private static void solveAll(PathFinder finder, Grid grid, List<PathQuery> queries, PathResult[] results,
+                                 long[] nanos, ForkJoinPool pool) {
+        if (pool == null) {
+            for (int i = 0; i < results.length; i++) {
+                solve(finder, grid, queries, results, nanos, i);
+            }
+        } else {
+            pool.submit(() -> IntStream.range(0, results.length).parallel()
+                    .forEach(i -> solve(finder, grid, queries, results, nanos, i))).join();
+        }
+    }
+
+    private static void solve(PathFinder finder, Grid grid, List<PathQuery> queries, PathResult[] results,
+                              long[] nanos, int i) {
+        PathQuery query = queries.get(i);
+        long start = System.nanoTime();
+        results[i] = finder.solve(grid, query.getStart(), query.getGoal(), CONTEXTS.get());
+        nanos[i] = System.nanoTime() - start;
+    }
+
+    /**
+     * @return Length of the path counting diagonal steps as the square root of 2, like the references
+     */
+    private static double length(PathResult result) {
+        int straight = 0;
+        int diagonal = 0;
+        for (int i = 1; i < result.getLength(); i++) {
+            boolean dx = result.getX(i) != result.getX(i - 1);
+            boolean dy = result.getY(i) != result.getY(i - 1);
+            if (dx && dy) {
+                diagonal++;
+            } else if (dx || dy) {
+                straight++;
+            }
+        }
+        return straight + diagonal * Math.sqrt(2);
+    }
+
+    private Check check(Scenario scenario, PathResult result, double length) {
+        if (!result.isFound()) {
+            return Check.MISSING;
+        }
+        double reference = scenario.getOptimalLength();
+        if (result.getCost() > 10 * reference * (1 + tolerance) + EPSILON) {
+            return Check.SUBOPTIMAL;
+        }
+        if (length < reference - EPSILON) {
+            return Check.SHORTER;
+        }
+        return Check.OK;
+    }
+
+    /*
+    OUTPUT
+     */
+
+    private static final String[] COLUMNS = {
+            "file", "map", "bucket", "start_x", "start_y", "goal_x", "goal_y",
+            "status", "cost", "length", "reference", "expanded", "time_us", "check"
+    };
+
+    private void writeHeader(Writer out) throws IOException {
+        if (format == Format.CSV) {
+            out.write(String.join(",", COLUMNS));
+            out.write('\n');
+        } else {
+            out.write('[');
+        }
+    }
+
+    private void writeFooter(Writer out) throws IOException {
+        if (format == Format.JSON) {
+            out.write("\n]\n");
+        }
+    }
+
+    private void writeRow(Writer out, Path file, Scenario scenario, PathResult result, double length,
+                          long nanos, Check check) throws IOException {
+        boolean hasPath = result.getLength() > 0;
+        // Strings are quoted, numbers are not and missing values are empty or null
+        Object[] values = {
+                String.valueOf(file.getFileName()), scenario.getMapName(), scenario.getBucket(),
+                scenario.getStartX(), scenario.getStartY(), scenario.getGoalX(), scenario.getGoalY(),
+                result.getStatus().name(), hasPath ? result.getCost() : null,
+                hasPath ? String.format(Locale.ROOT, "%.8f", length) : null,
+                String.format(Locale.ROOT, "%.8f", scenario.getOptimalLength()),
+                result.getExpanded(), String.format(Locale.ROOT, "%.1f", nanos / 1e3), check.name()
+        };
+        StringBuilder row = new StringBuilder(128);
+        if (format == Format.CSV) {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    row.append(',');
+                }
+                if (values[i] != null) {
+                    row.append(csvField(values[i].toString()));
+                }
+            }
+        } else {
+            row.append(firstRow ? "\n  {" : ",\n  {");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    row.append(", ");
+                }
+                row.append('"').append(COLUMNS[i]).append("\": ");
+                Object value = values[i];
+                if (value == null) {
+                    row.append("null");
+                } else if (value instanceof String && !isNumberColumn(i)) {
+                    row.append(jsonString((String) value));
+                } else {
+                    row.append(value);
+                }
+            }
+            row.append('}');
+        }
+        firstRow = false;
+        if (format == Format.CSV) {
+            row.append('\n');
+        }
+        out.write(row.toString());
+    }
+
+    /**
+     * @return True for the formatted decimal columns, written as JSON numbers
+     */
+    private static boolean isNumberColumn(int column) {
+        return COLUMNS[column].equals("length") || COLUMNS[column].equals("reference")
+                || COLUMNS[column].equals("time_us");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String jsonString(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Totals over all queries, printed to standard error after the run.
+     */
+    private final class Summary {
+        private final List<String> failed = new ArrayList<>();
+        private long[] times = new long[1024];
+        private int queries;
+        private int found;
+        private int failures;
+        private long expanded;
+        private long setupNanos;
+
+        private void add(Path file, Scenario scenario, PathResult result, long nanos, Check check) {
+            if (queries == times.length) {
+                times = Arrays.copyOf(times, queries * 2);
+            }
+            times[queries++] = nanos;
+            if (result.isFound()) {
+                found++;
+            }
+            expanded += result.getExpanded();
+            if (check != Check.OK) {
+                failures++;
+                if (failed.size() < MAX_REPORTED_FAILURES) {
+                    failed.add(check + " " + file.getFileName() + ": " + scenario + ", got " + result);
+                }
+            }
+        }
+
+        private void print() {
+            long[] sorted = Arrays.copyOf(times, queries);
+            Arrays.sort(sorted);
+            long total = 0;
+            for (long time : sorted) {
+                total += time;
+            }
+            System.err.printf(Locale.ROOT, "%s, %s, %d thread(s): %d queries, %d found, %d failed check%n",
+                    solver, movement, threads, queries, found, failures);
+            if (queries > 0) {
+                System.err.printf(Locale.ROOT,
+                        "setup %.1f ms, solve %.1f ms, per query mean %.1f us, p50 %.1f us, p99 %.1f us, "
+                                + "max %.1f us, mean expanded %d%n",
+                        setupNanos / 1e6, total / 1e6, total / 1e3 / queries, percentile(sorted, 0.5) / 1e3,
+                        percentile(sorted, 0.99) / 1e3, sorted[queries - 1] / 1e3, expanded / queries);
+            }
+            for (String failure : failed) {
+                System.err.println(failure);
+            }
+            if (failures > failed.size()) {
+                System.err.println("... and " + (failures - failed.size()) + " more");
+            }
+        }
+
+        private long percentile(long[] sorted, double percentile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)];
+        }
+    }
+}
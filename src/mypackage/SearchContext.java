@@ -0,0 +1,427 @@
+package mypackage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Per-query search state: open list, G costs, parents and closed set.
+ * A context is not thread safe, but can be reset and reused for any number of queries by the same thread.
+ * <p>
+ * A context can also limit its searches by an expansion budget and a timeout, and searches can be cancelled from
+ * another thread or by interrupting the searching thread. Limits are only checked every
+ * {@value #CHECK_INTERVAL} expansions, so the clock is not read per cell.
+ */
+public class SearchContext {
+    private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(int[].class);
+    static final int CHECK_INTERVAL = 1024;
+    // Largest key a bucket queue is used for, it allocates one bucket per key up to the largest key pushed
+    static final int MAX_BUCKET_KEY = 1 << 20;
+
+    private int[] gCost;
+    private int[] parent;
+    private int[] seenStamp;
+    private int[] closedStamp;
+    private int generation;
+    private final OpenList defaultOpen;
+    // Heap replacing a bucket queue for searches with large keys, created on first use
+    private OpenList wideOpen;
+    private OpenList open;
+    // Counters of the current search
+    private int expanded;
+    private int pushed;
+    private int decreased;
+    private int peakOpen;
+    private SearchObserver observer;
+    private SearchEventListener listener;
+    private long startNanos;
+    // Limits of every search, and the state of the current one
+    private int expansionBudget = Integer.MAX_VALUE;
+    private long timeoutNanos;
+    private BooleanSupplier cancelSignal;
+    private volatile boolean cancelled;
+    private long deadline;
+    private int nextCheck;
+    private PathResult.Status stopReason;
+
+    public SearchContext() {
+        this(0);
+    }
+
+    public SearchContext(int capacity) {
+        this(capacity, new BucketQueue());
+    }
+
+    /**
+     * @param capacity Number of cell indices to allocate for up front
+     * @param open     Open list implementation to use
+     */
+    public SearchContext(int capacity, OpenList open) {
+        this.defaultOpen = open;
+        this.open = open;
+        allocate(capacity);
+    }
+
+    /**
+     * Prepare context for a new search on a grid with the given number of cells.
+     * Arrays are only reallocated if the grid is larger than any grid searched before.
+     *
+     * @param size Number of cells in the grid
+     */
+    public void reset(int size) {
+        reset(size, 0);
+    }
+
+    /**
+     * Prepare context for a new search whose keys may grow up to a bound. If the context was created with a
+     * {@link BucketQueue} and the bound is too large for one bucket per key, the search uses an
+     * {@link IndexedHeap} instead.
+     *
+     * @param size   Number of cells in the grid
+     * @param maxKey Upper bound of the keys the search pushes
+     */
+    void reset(int size, long maxKey) {
+        OpenList wanted = defaultOpen;
+        if (maxKey > MAX_BUCKET_KEY && defaultOpen instanceof BucketQueue) {
+            if (wideOpen == null) {
+                wideOpen = new IndexedHeap();
+            }
+            wanted = wideOpen;
+        }
+        if (wanted != open) {
+            open.clear();
+            open = wanted;
+            open.ensureCapacity(gCost.length);
+        }
+        if (size > gCost.length) {
+            allocate(size);
+        }
+        open.clear();
+        expanded = 0;
+        pushed = 0;
+        decreased = 0;
+        peakOpen = 0;
+        if (observer != null) {
+            startNanos = System.nanoTime();
+        }
+        cancelled = false;
+        stopReason = null;
+        if (timeoutNanos > 0) {
+            deadline = System.nanoTime() + timeoutNanos;
+        }
+        nextCheck = Math.min(expansionBudget, CHECK_INTERVAL);
+        // Stamps from earlier searches no longer match, which clears all cells at once.
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            allocate(gCost.length);
+            generation = 1;
+        }
+    }
+
+    private void allocate(int size) {
+        gCost = new int[size];
+        parent = new int[size];
+        seenStamp = new int[size];
+        closedStamp = new int[size];
+        generation = 0;
+        open.ensureCapacity(size);
+    }
+
+    /*
+    CELL STATE
+     */
+
+    public boolean isSeen(int cell) {
+        return seenStamp[cell] == generation;
+    }
+
+    public boolean isClosed(int cell) {
+        return closedStamp[cell] == generation;
+    }
+
+    /**
+     * Mark cell as expanded.
+     */
+    void close(int cell) {
+        closedStamp[cell] = generation;
+        expanded++;
+        if (listener != null) {
+            listener.onExpanded(cell);
+        }
+    }
+
+    /**
+     * @param cell Cell index
+     * @return G cost of cell, or Integer.MAX_VALUE if the cell was not reached yet
+     */
+    public int getGCost(int cell) {
+        return isSeen(cell) ? gCost[cell] : Integer.MAX_VALUE;
+    }
+
+    public int getParent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * Record a new best G cost and parent for a cell.
+     *
+     * @param cell   Cell index
+     * @param g      New G cost
+     * @param from   Parent cell index, or -1 for the start cell
+     */
+    void update(int cell, int g, int from) {
+        gCost[cell] = g;
+        parent[cell] = from;
+        seenStamp[cell] = generation;
+    }
+
+    /**
+     * Same as {@link #update}, but other threads reading the cell with {@link #isSeenPublished} see the new G cost.
+     * Slower than a plain update, only for searches that share their state with a concurrent search.
+     */
+    void updatePublished(int cell, int g, int from) {
+        gCost[cell] = g;
+        parent[cell] = from;
+        STAMPS.setVolatile(seenStamp, cell, generation);
+    }
+
+    /**
+     * Check if cell was reached, from a thread other than the one searching with this context.
+     * If true, {@link #getGCost} returns a cost at least as recent as the update that published the cell.
+     */
+    boolean isSeenPublished(int cell) {
+        return (int) STAMPS.getVolatile(seenStamp, cell) == generation;
+    }
+
+    /*
+    OPEN LIST
+     */
+
+    /**
+     * Add cell to the open list, or lower its F cost if it is already queued.
+     */
+    void push(int cell, int fCost) {
+        // Decrease-key updates and the peak size cost extra lookups, they are only counted for an observer
+        if (observer != null && open.contains(cell)) {
+            decreased++;
+        }
+        open.insertOrDecrease(cell, fCost);
+        pushed++;
+        if (observer != null && open.size() > peakOpen) {
+            peakOpen = open.size();
+        }
+        if (listener != null) {
+            listener.onPushed(cell);
+        }
+    }
+
+    boolean isOpenEmpty() {
+        return open.isEmpty();
+    }
+
+    int pop() {
+        return open.pop();
+    }
+
+    int openSize() {
+        return open.size();
+    }
+
+    /**
+     * @return Lowest F cost on the open list, which must not be empty
+     */
+    int peekOpenKey() {
+        return open.peekKey();
+    }
+
+    /*
+    LIMITS
+     */
+
+    /**
+     * Check if the current search has to stop, to be called before every expansion.
+     * Costs a single comparison until the next check is due.
+     *
+     * @return True if a limit was hit, {@link #getStopReason()} tells which
+     */
+    boolean shouldStop() {
+        return expanded >= nextCheck && checkLimits();
+    }
+
+    private boolean checkLimits() {
+        if (expanded >= expansionBudget) {
+            stopReason = PathResult.Status.BUDGET_EXHAUSTED;
+        } else if (cancelled || Thread.currentThread().isInterrupted()
+                || cancelSignal != null && cancelSignal.getAsBoolean()) {
+            stopReason = PathResult.Status.CANCELLED;
+        } else if (timeoutNanos > 0 && System.nanoTime() - deadline >= 0) {
+            stopReason = PathResult.Status.DEADLINE_EXCEEDED;
+        } else {
+            nextCheck = (int) Math.min(expansionBudget, (long) expanded + CHECK_INTERVAL);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return Limit that stopped the current search, or null if it was not stopped
+     */
+    public PathResult.Status getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Stop the search currently running with this context. Can be called from any thread.
+     * Searches started after the call are not affected.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Set maximum number of cells every following search may expand.
+     *
+     * @param budget Expansion budget, or Integer.MAX_VALUE for no limit
+     */
+    public void setExpansionBudget(int budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("Expansion budget must not be negative: " + budget);
+        }
+        this.expansionBudget = budget;
+    }
+
+    public int getExpansionBudget() {
+        return expansionBudget;
+    }
+
+    /**
+     * Set time every following search may take, counted from its reset.
+     *
+     * @param timeout Maximum duration, or 0 for no limit
+     * @param unit    Unit of timeout
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout must not be negative: " + timeout);
+        }
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * @return Timeout of searches in nanoseconds, or 0 for no limit
+     */
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    /**
+     * Set a condition checked along with the other limits that cancels the search once it is true.
+     *
+     * @param signal Thread safe condition, or null for none
+     */
+    void setCancelSignal(BooleanSupplier signal) {
+        this.cancelSignal = signal;
+    }
+
+    /*
+    INSTRUMENTATION
+     */
+
+    /**
+     * End the current search, reporting its statistics to the observer if one is set.
+     *
+     * @param result Result of the search
+     * @return The same result
+     */
+    PathResult finish(PathResult result) {
+        if (observer != null) {
+            observer.onSearchComplete(new SearchStats(expanded, pushed, decreased, peakOpen,
+                    result.getLength(), result.getCost(), System.nanoTime() - startNanos, result.getStatus()));
+        }
+        if (listener != null) {
+            listener.onFinished(result);
+        }
+        return result;
+    }
+
+    /**
+     * End a search that produced several paths, reporting the total length and cost of all found paths.
+     * The search counts as found if any path was found, else as stopped if a limit stopped it.
+     *
+     * @param results Results of the search
+     * @return The same results
+     */
+    PathResult[] finish(PathResult[] results) {
+        if (observer != null) {
+            int length = 0;
+            int cost = 0;
+            PathResult.Status status = PathResult.Status.NO_PATH;
+            for (PathResult result : results) {
+                if (result.isFound()) {
+                    length += result.getLength();
+                    cost += result.getCost();
+                    status = PathResult.Status.FOUND;
+                } else if (result.isStopped() && status == PathResult.Status.NO_PATH) {
+                    status = result.getStatus();
+                }
+            }
+            observer.onSearchComplete(new SearchStats(expanded, pushed, decreased, peakOpen,
+                    length, length > 0 ? cost : -1, System.nanoTime() - startNanos, status));
+        }
+        if (listener != null) {
+            for (PathResult result : results) {
+                listener.onFinished(result);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Set observer notified after every search with this context.
+     * Without an observer no statistics objects are created and no time is measured.
+     *
+     * @param observer Observer, or null to disable instrumentation
+     */
+    public void setObserver(SearchObserver observer) {
+        this.observer = observer;
+    }
+
+    public SearchObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Set listener receiving every push, expansion and the result of searches with this context.
+     *
+     * @param listener Listener, or null to disable events
+     */
+    public void setListener(SearchEventListener listener) {
+        this.listener = listener;
+    }
+
+    public SearchEventListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return Number of cells expanded by the current search
+     */
+    public int getExpanded() {
+        return expanded;
+    }
+
+    /**
+     * @return Number of cells pushed on the open list by the current search, including decrease-key updates
+     */
+    public int getPushed() {
+        return pushed;
+    }
+
+    /**
+     * @return Size of the open list at its largest during the current search, 0 if no observer is set
+     */
+    public int getPeakOpen() {
+        return peakOpen;
+    }
+}
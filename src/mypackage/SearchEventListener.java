@@ -0,0 +1,29 @@
+package mypackage;
+
+/**
+ * Receives the progress of searches run with a {@link SearchContext} it is set on, for example to visualize them.
+ * Called synchronously on the searching thread for every event, so implementations should only record events
+ * and return quickly.
+ */
+public interface SearchEventListener {
+    /**
+     * A cell was added to the open list or its cost was lowered.
+     *
+     * @param cell Cell index
+     */
+    void onPushed(int cell);
+
+    /**
+     * A cell was taken from the open list and its neighbours are being checked.
+     *
+     * @param cell Cell index
+     */
+    void onExpanded(int cell);
+
+    /**
+     * The search ended.
+     *
+     * @param result Path found, or an empty result if there is none
+     */
+    void onFinished(PathResult result);
+}
@@ -0,0 +1,92 @@
+package mypackage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe registry aggregating search statistics into counters and histograms.
+ * Set it as observer on every search context to monitor, and export with {@link #snapshot()}.
+ */
+public class SearchMetrics implements SearchObserver {
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder found = new LongAdder();
+    private final LongAdder stopped = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAdder pushed = new LongAdder();
+    private final LongAdder decreased = new LongAdder();
+    private final LogHistogram wallTimeNanos = new LogHistogram();
+    private final LogHistogram expandedPerSearch = new LogHistogram();
+    private final LogHistogram peakOpen = new LogHistogram();
+
+    @Override
+    public void onSearchComplete(SearchStats stats) {
+        searches.increment();
+        if (stats.isFound()) {
+            found.increment();
+        } else if (stats.isStopped()) {
+            stopped.increment();
+        }
+        expanded.add(stats.getExpanded());
+        pushed.add(stats.getPushed());
+        decreased.add(stats.getDecreased());
+        wallTimeNanos.record(stats.getWallTimeNanos());
+        expandedPerSearch.record(stats.getExpanded());
+        peakOpen.record(stats.getPeakOpen());
+    }
+
+    /**
+     * Current values of all counters and the median, 99th percentile and maximum of each histogram,
+     * as upper bounds of their power-of-two buckets.
+     *
+     * @return Metric names mapped to values, in a fixed order
+     */
+    public Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        values.put("searches", searches.sum());
+        values.put("found", found.sum());
+        values.put("stopped", stopped.sum());
+        values.put("expanded", expanded.sum());
+        values.put("pushed", pushed.sum());
+        values.put("decreased", decreased.sum());
+        putHistogram(values, "wall_time_ns", wallTimeNanos);
+        putHistogram(values, "expanded_per_search", expandedPerSearch);
+        putHistogram(values, "peak_open", peakOpen);
+        return values;
+    }
+
+    private static void putHistogram(Map<String, Long> values, String name, LogHistogram histogram) {
+        values.put(name + "_p50", histogram.percentile(50));
+        values.put(name + "_p99", histogram.percentile(99));
+        values.put(name + "_max", histogram.percentile(100));
+    }
+
+    public void reset() {
+        searches.reset();
+        found.reset();
+        stopped.reset();
+        expanded.reset();
+        pushed.reset();
+        decreased.reset();
+        wallTimeNanos.reset();
+        expandedPerSearch.reset();
+        peakOpen.reset();
+    }
+
+    public LogHistogram getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    public LogHistogram getExpandedPerSearch() {
+        return expandedPerSearch;
+    }
+
+    public LogHistogram getPeakOpen() {
+        return peakOpen;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchMetrics" + snapshot();
+    }
+}
@@ -0,0 +1,22 @@
+package mypackage;
+
+/**
+ * Receives statistics of every search run with a {@link SearchContext} it is set on.
+ * Called on the searching thread, so implementations shared between contexts must be thread safe.
+ */
+public interface SearchObserver {
+    void onSearchComplete(SearchStats stats);
+
+    /**
+     * Combine this observer with another one.
+     *
+     * @param other Observer to notify after this one
+     * @return Observer notifying both
+     */
+    default SearchObserver andThen(SearchObserver other) {
+        return stats -> {
+            onSearchComplete(stats);
+            other.onSearchComplete(stats);
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package mypackage;
+
+/**
+ * Statistics of a single finished search.
+ */
+public class SearchStats {
+    private final int expanded;
+    private final int pushed;
+    private final int decreased;
+    private final int peakOpen;
+    private final int pathLength;
+    private final int pathCost;
+    private final long wallTimeNanos;
+    private final PathResult.Status status;
+
+    /**
+     * @param expanded      Number of cells expanded
+     * @param pushed        Number of open list insertions and decrease-key updates
+     * @param decreased     Number of pushes that lowered the key of a cell already in the open list
+     * @param peakOpen      Largest size of the open list
+     * @param pathLength    Number of cells on the path, including partial paths of stopped searches,
+     *                      0 if there is none
+     * @param pathCost      Cost of the path, -1 if there is none
+     * @param wallTimeNanos Time from reset of the context until the result was ready
+     * @param status        How the search ended
+     */
+    public SearchStats(int expanded, int pushed, int decreased, int peakOpen, int pathLength, int pathCost,
+                       long wallTimeNanos, PathResult.Status status) {
+        this.expanded = expanded;
+        this.pushed = pushed;
+        this.decreased = decreased;
+        this.peakOpen = peakOpen;
+        this.pathLength = pathLength;
+        this.pathCost = pathCost;
+        this.wallTimeNanos = wallTimeNanos;
+        this.status = status;
+    }
+
+    /**
+     * @return True if the search found a complete path, partial paths of stopped searches do not count
+     */
+    public boolean isFound() {
+        return status == PathResult.Status.FOUND;
+    }
+
+    /**
+     * @return True if a budget, timeout or cancellation stopped the search
+     */
+    public boolean isStopped() {
+        return status.isLimit();
+    }
+
+    public PathResult.Status getStatus() {
+        return status;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    public int getPushed() {
+        return pushed;
+    }
+
+    /**
+     * The open lists never hold duplicate entries, so a decrease-key update takes the place of what would
+     * otherwise be a stale entry popped later.
+     *
+     * @return Number of decrease-key updates
+     */
+    public int getDecreased() {
+        return decreased;
+    }
+
+    public int getPeakOpen() {
+        return peakOpen;
+    }
+
+    public int getPathLength() {
+        return pathLength;
+    }
+
+    public int getPathCost() {
+        return pathCost;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStats{" +
+                "status=" + status +
+                ", expanded=" + expanded +
+                ", pushed=" + pushed +
+                ", decreased=" + decreased +
+                ", peakOpen=" + peakOpen +
+                ", pathLength=" + pathLength +
+                ", pathCost=" + pathCost +
+                ", wallTimeNanos=" + wallTimeNanos +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package mypackage;
+
+/**
+ * Distance heuristics for grids with straight step cost 10 and diagonal step cost 14.
+ */
+public enum StandardHeuristic implements Heuristic {
+    /**
+     * Exact distance on an empty 4-connected grid. Overestimates on 8-connected grids.
+     */
+    MANHATTAN {
+        @Override
+        public int estimate(int x, int y, int goalX, int goalY) {
+            return (Math.abs(goalX - x) + Math.abs(goalY - y)) * 10;
+        }
+    },
+    /**
+     * Exact distance on an empty 8-connected grid.
+     */
+    OCTILE {
+        @Override
+        public int estimate(int x, int y, int goalX, int goalY) {
+            int dx = Math.abs(goalX - x);
+            int dy = Math.abs(goalY - y);
+            return 10 * Math.max(dx, dy) + 4 * Math.min(dx, dy);
+        }
+    },
+    /**
+     * Straight line distance, scaled so a diagonal costs 14 rather than 10 * sqrt(2) to stay admissible.
+     */
+    EUCLIDEAN {
+        private final double scale = 14 / Math.sqrt(2);
+
+        @Override
+        public int estimate(int x, int y, int goalX, int goalY) {
+            double dx = goalX - x;
+            double dy = goalY - y;
+            return (int) (Math.sqrt(dx * dx + dy * dy) * scale);
+        }
+    },
+    /**
+     * Number of 8-connected steps times the straight step cost. Admissible, but weaker than octile.
+     */
+    CHEBYSHEV {
+        @Override
+        public int estimate(int x, int y, int goalX, int goalY) {
+            return 10 * Math.max(Math.abs(goalX - x), Math.abs(goalY - y));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package mypackage;
+
+import javax.swing.*;
+import java.util.Arrays;
+
+/**
+ * Search event listener that buffers events from the searching thread and hands them to a painter on the
+ * Swing event dispatch thread, once per frame. The search runs at full speed, the GUI only repaints as often
+ * as the frame rate allows.
+ * <p>
+ * Events are coalesced per cell: a cell is painted at most once per frame, as expanded if it was expanded in that
+ * frame and as pushed otherwise. Buffers hold one entry per cell, so they are bounded by the size of the grid
+ * however many events a frame collects.
+ */
+public class SwingEventBatcher implements SearchEventListener {
+    private static final byte NONE = 0;
+    private static final byte PUSHED = 1;
+    private static final byte EXPANDED = 2;
+
+    private final CellPainter painter;
+    private final Timer timer;
+    // Strongest event per cell since the last frame, grown to the highest cell index seen
+    private byte[] pending = new byte[1024];
+    // Cells with a pending event, each listed once
+    private int[] dirty = new int[1024];
+    private int size;
+    // Events of the frame being painted
+    private int[] paintCells = new int[1024];
+    private boolean[] paintExpanded = new boolean[1024];
+    private PathResult result;
+    private volatile boolean stopped;
+
+    /**
+     * Create batcher and start delivering frames.
+     *
+     * @param painter         Painter called on the event dispatch thread
+     * @param framesPerSecond Number of times per second buffered events are painted
+     */
+    public SwingEventBatcher(CellPainter painter, int framesPerSecond) {
+        this.painter = painter;
+        this.timer = new Timer(1000 / framesPerSecond, e -> paintFrame());
+        this.timer.start();
+    }
+
+    @Override
+    public void onPushed(int cell) {
+        record(cell, PUSHED);
+    }
+
+    @Override
+    public void onExpanded(int cell) {
+        record(cell, EXPANDED);
+    }
+
+    @Override
+    public synchronized void onFinished(PathResult result) {
+        this.result = result;
+    }
+
+    private synchronized void record(int cell, byte event) {
+        if (stopped) {
+            return;
+        }
+        if (cell >= pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(cell + 1, pending.length * 2));
+        }
+        byte previous = pending[cell];
+        if (previous >= event) {
+            return;
+        }
+        pending[cell] = event;
+        if (previous == NONE) {
+            if (size == dirty.length) {
+                dirty = Arrays.copyOf(dirty, size * 2);
+            }
+            dirty[size++] = cell;
+        }
+    }
+
+    /**
+     * Paint all events buffered since the last frame. Runs on the event dispatch thread.
+     */
+    private void paintFrame() {
+        if (stopped) {
+            return;
+        }
+        int count;
+        PathResult finished;
+        synchronized (this) {
+            // Take the events of this frame, so the search can keep recording while we paint
+            count = size;
+            if (count > paintCells.length) {
+                paintCells = new int[dirty.length];
+                paintExpanded = new boolean[dirty.length];
+            }
+            for (int i = 0; i < count; i++) {
+                int cell = dirty[i];
+                paintCells[i] = cell;
+                paintExpanded[i] = pending[cell] == EXPANDED;
+                pending[cell] = NONE;
+            }
+            size = 0;
+            finished = result;
+        }
+        for (int i = 0; i < count; i++) {
+            painter.paintCell(paintCells[i], paintExpanded[i]);
+        }
+        if (count > 0) {
+            painter.frameFinished();
+        }
+        if (finished != null) {
+            stop();
+            painter.paintResult(finished);
+        }
+    }
+
+    /**
+     * Stop painting and ignore any further events.
+     */
+    public void stop() {
+        stopped = true;
+        timer.stop();
+    }
+
+    /**
+     * Receives batched search events on the event dispatch thread.
+     */
+    public interface CellPainter {
+        /**
+         * @param cell     Cell index
+         * @param expanded True if the cell was expanded, false if it was pushed on the open list
+         */
+        void paintCell(int cell, boolean expanded);
+
+        /**
+         * Called after the cells of a frame were painted, for example to repaint the changed area at once.
+         */
+        default void frameFinished() {
+        }
+
+        /**
+         * Called once after all events of the search were painted.
+         *
+         * @param result Result of the search
+         */
+        void paintResult(PathResult result);
+    }
+}
@@ -0,0 +1,225 @@
+package mypackage;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Traversal cost of every cell of a grid, stored as one byte or one short per cell index.
+ * Entering a cell multiplies the step cost (10 straight, 14 diagonal) by the cost of that cell, so a cost of 1
+ * is plain ground and higher costs make terrain like swamp or forest more expensive to cross.
+ * Blocked cells stay blocked in the grid, costs are only read for walkable cells.
+ * <p>
+ * Costs must be at least 1. Heuristics are scaled by the lowest cost to stay admissible, and path costs
+ * must fit in an int, searches throw an {@link ArithmeticException} for paths that cost more.
+ */
+public abstract class TerrainCosts {
+    final int width;
+    final int height;
+    final int stride;
+    private int minCost = 1;
+    private boolean minCostStale;
+
+    private TerrainCosts(Grid grid) {
+        this.width = grid.getWidth();
+        this.height = grid.getHeight();
+        this.stride = grid.getStride();
+    }
+
+    /**
+     * Create costs of up to 255 per cell, all starting at 1.
+     *
+     * @param grid Grid the costs belong to
+     * @return Cost layer of one byte per cell
+     */
+    public static TerrainCosts ofBytes(Grid grid) {
+        return new ByteCosts(grid);
+    }
+
+    /**
+     * Create costs of up to 65535 per cell, all starting at 1.
+     *
+     * @param grid Grid the costs belong to
+     * @return Cost layer of two bytes per cell
+     */
+    public static TerrainCosts ofShorts(Grid grid) {
+        return new ShortCosts(grid);
+    }
+
+    /**
+     * Copy the cost layer of a map file.
+     *
+     * @param file Opened map file
+     * @param grid Grid loaded from the file
+     * @return Cost layer with the width of the file, or null if the file has none
+     */
+    public static TerrainCosts fromMapFile(MapFile file, Grid grid) {
+        ByteBuffer layer = file.costLayer();
+        if (layer == null) {
+            return null;
+        }
+        if (file.getWidth() != grid.getWidth() || file.getHeight() != grid.getHeight()) {
+            throw new IllegalArgumentException("Grid was not loaded from " + file.getPath());
+        }
+        TerrainCosts costs;
+        if (file.getCostBytes() == 1) {
+            ByteCosts bytes = new ByteCosts(grid);
+            layer.get(bytes.costs);
+            costs = bytes;
+        } else {
+            ShortCosts shorts = new ShortCosts(grid);
+            layer.asShortBuffer().get(shorts.costs);
+            costs = shorts;
+        }
+        costs.minCostStale = true;
+        return costs;
+    }
+
+    /**
+     * Cost of entering a cell, for the search loop.
+     *
+     * @param cell Cell index
+     * @return Cost multiplier of cell
+     */
+    abstract int cost(int cell);
+
+    abstract void store(int cell, int cost);
+
+    /**
+     * @return Highest cost this layer can store
+     */
+    public abstract int getMaxCost();
+
+    /**
+     * @return Bytes per cell, 1 or 2
+     */
+    public abstract int getBytesPerCell();
+
+    public int getCost(int x, int y) {
+        checkBounds(x, y);
+        return cost(index(x, y));
+    }
+
+    /**
+     * Set the cost of a cell. The costs must not be modified while searches are running on them.
+     *
+     * @param x    X position
+     * @param y    Y position
+     * @param cost New cost, between 1 and {@link #getMaxCost()}
+     */
+    public void setCost(int x, int y, int cost) {
+        checkBounds(x, y);
+        if (cost < 1 || cost > getMaxCost()) {
+            throw new IllegalArgumentException("Cost must be between 1 and " + getMaxCost() + ": " + cost);
+        }
+        int cell = index(x, y);
+        if (cost < minCost) {
+            minCost = cost;
+        } else if (cost(cell) == minCost && cost > minCost) {
+            // Possibly the last cell at the lowest cost, find the new lowest cost when it is needed
+            minCostStale = true;
+        }
+        store(cell, cost);
+    }
+
+    /**
+     * Lowest cost of any cell, used to scale heuristics so they never overestimate.
+     * Only layers read from a file can hold cells of cost 0, which turns the heuristic off.
+     *
+     * @return Lowest cost
+     */
+    public int getMinCost() {
+        if (minCostStale) {
+            int min = getMaxCost();
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    min = Math.min(min, cost(index(x, y)));
+                }
+            }
+            minCost = min;
+            minCostStale = false;
+        }
+        return minCost;
+    }
+
+    /**
+     * Check that this layer was created for a grid of the same dimensions.
+     *
+     * @param grid Grid to search
+     */
+    void checkGrid(Grid grid) {
+        if (grid.getWidth() != width || grid.getHeight() != height) {
+            throw new IllegalArgumentException("Terrain costs of " + width + "x" + height
+                    + " do not fit grid of " + grid.getWidth() + "x" + grid.getHeight());
+        }
+    }
+
+    private int index(int x, int y) {
+        return (y + 1) * stride + x + 1;
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            throw new IndexOutOfBoundsException("Position out of bounds: " + x + "," + y);
+        }
+    }
+
+    static final class ByteCosts extends TerrainCosts {
+        final byte[] costs;
+
+        private ByteCosts(Grid grid) {
+            super(grid);
+            costs = new byte[grid.size()];
+            Arrays.fill(costs, (byte) 1);
+        }
+
+        @Override
+        int cost(int cell) {
+            return costs[cell] & 0xFF;
+        }
+
+        @Override
+        void store(int cell, int cost) {
+            costs[cell] = (byte) cost;
+        }
+
+        @Override
+        public int getMaxCost() {
+            return 0xFF;
+        }
+
+        @Override
+        public int getBytesPerCell() {
+            return 1;
+        }
+    }
+
+    static final class ShortCosts extends TerrainCosts {
+        final short[] costs;
+
+        private ShortCosts(Grid grid) {
+            super(grid);
+            costs = new short[grid.size()];
+            Arrays.fill(costs, (short) 1);
+        }
+
+        @Override
+        int cost(int cell) {
+            return costs[cell] & 0xFFFF;
+        }
+
+        @Override
+        void store(int cell, int cost) {
+            costs[cell] = (short) cost;
+        }
+
+        @Override
+        public int getMaxCost() {
+            return 0xFFFF;
+        }
+
+        @Override
+        public int getBytesPerCell() {
+            return 2;
+        }
+    }
+}
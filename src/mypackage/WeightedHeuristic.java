@@ -0,0 +1,31 @@
+package mypackage;
+
+/**
+ * Heuristic inflated by a constant weight (weighted A*).
+ * If the base heuristic is admissible, paths cost at most epsilon times the optimal cost.
+ */
+public class WeightedHeuristic implements Heuristic {
+    private final Heuristic base;
+    private final double epsilon;
+
+    public WeightedHeuristic(Heuristic base, double epsilon) {
+        if (!(epsilon >= 1.0)) {
+            throw new IllegalArgumentException("Heuristic weight must be at least 1: " + epsilon);
+        }
+        this.base = base;
+        this.epsilon = epsilon;
+    }
+
+    @Override
+    public int estimate(int x, int y, int goalX, int goalY) {
+        return (int) (base.estimate(x, y, goalX, goalY) * epsilon);
+    }
+
+    public Heuristic getBase() {
+        return base;
+    }
+
+    public double getEpsilon() {
+        return epsilon;
+    }
+}
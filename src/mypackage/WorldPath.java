@@ -0,0 +1,87 @@
+package mypackage;
+
+/**
+ * Path on a {@link ChunkedGrid}, in world coordinates since the cells of a world have no index.
+ */
+public class WorldPath {
+    private static final int[] EMPTY = new int[0];
+
+    private final int[] xs;
+    private final int[] ys;
+    private final int cost;
+    private final int expanded;
+    private final PathResult.Status status;
+
+    /**
+     * @param xs       X coordinates of the path, ordered from start to its last cell
+     * @param ys       Y coordinates of the path
+     * @param cost     Total cost of the path
+     * @param expanded Number of cells expanded during the search
+     * @param status   How the search ended
+     */
+    public WorldPath(int[] xs, int[] ys, int cost, int expanded, PathResult.Status status) {
+        this.xs = xs;
+        this.ys = ys;
+        this.cost = cost;
+        this.expanded = expanded;
+        this.status = status;
+    }
+
+    /**
+     * Create a result for a search that did not find a path.
+     *
+     * @param expanded Number of cells expanded during the search
+     * @return Empty result
+     */
+    public static WorldPath notFound(int expanded) {
+        return new WorldPath(EMPTY, EMPTY, -1, expanded, PathResult.Status.NO_PATH);
+    }
+
+    /**
+     * @return True if the result holds a complete path from start to goal
+     */
+    public boolean isFound() {
+        return status == PathResult.Status.FOUND;
+    }
+
+    /**
+     * @return True if a limit stopped the search and the result leads towards the goal without reaching it
+     */
+    public boolean isPartial() {
+        return status.isLimit() && xs.length > 0;
+    }
+
+    public PathResult.Status getStatus() {
+        return status;
+    }
+
+    public int getLength() {
+        return xs.length;
+    }
+
+    public int getX(int i) {
+        return xs[i];
+    }
+
+    public int getY(int i) {
+        return ys[i];
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int getExpanded() {
+        return expanded;
+    }
+
+    @Override
+    public String toString() {
+        return "WorldPath{" +
+                "status=" + status +
+                ", length=" + xs.length +
+                ", cost=" + cost +
+                ", expanded=" + expanded +
+                '}';
+    }
+}